@@ -6,11 +6,16 @@ val minecraftVersion: String = "1.21.1"
 val neoForgeVersion: String = "21.1.197"
 val patchouliVersion: String = "1.21.1-92-NEOFORGE"
 val tfcVersion: String = "4.0.16-beta"
+val jmhVersion: String = "1.37"
 
 val modId: String = "tfc_real_world"
 val modVersion: String = System.getenv("VERSION") ?: "0.0.0-indev"
 val modJavaVersion: String = "21"
 
+// Vectorised map interpolation, falls back to scalar code when the module is not added.
+// Only the vector source set is compiled with it, javac warns about incubating modules otherwise.
+val vectorModuleArgs: List<String> = listOf("--add-modules", "jdk.incubator.vector")
+
 val generateModMetadata = tasks.register<ProcessResources>("generateModMetadata") {
   val modReplacementProperties = mapOf(
     "modId" to modId,
@@ -62,6 +67,27 @@ sourceSets {
       srcDir(generateModMetadata)
     }
   }
+  // The Vector API kernel, loaded by name from main when the incubator module is present
+  val vector = create("vector") {
+    compileClasspath += main.get().output + main.get().compileClasspath
+  }
+  test {
+    runtimeClasspath += vector.output
+  }
+  // JMH benchmarks, run with ./gradlew jmh [-Pjmh.include=<regex>]
+  create("jmh") {
+    compileClasspath += main.get().output + test.get().output
+    runtimeClasspath += main.get().output + test.get().output
+  }
+}
+
+configurations {
+  named("jmhImplementation") {
+    extendsFrom(configurations.testImplementation.get())
+  }
+  named("jmhRuntimeOnly") {
+    extendsFrom(configurations.testRuntimeOnly.get())
+  }
 }
 
 neoForge {
@@ -70,6 +96,7 @@ neoForge {
   runs {
     configureEach {
       jvmArguments.addAll("-XX:+IgnoreUnrecognizedVMOptions", "-XX:+AllowEnhancedClassRedefinition", "-ea")
+      jvmArguments.addAll(vectorModuleArgs)
     }
     register("client") {
       client()
@@ -85,6 +112,7 @@ neoForge {
   mods {
     create(modId) {
       sourceSet(sourceSets.main.get())
+      sourceSet(sourceSets["vector"])
     }
   }
 
@@ -94,6 +122,9 @@ neoForge {
   }
 
   ideSyncTask(generateModMetadata)
+
+  // Benchmarks need the mod loaded with its mixins, just like the unit tests
+  addModdingDependenciesTo(sourceSets["jmh"])
 }
 
 dependencies {
@@ -103,6 +134,9 @@ dependencies {
   testImplementation("org.junit.jupiter:junit-jupiter:5.10.3")
   testRuntimeOnly("org.junit.platform:junit-platform-launcher:1.10.3")
   testImplementation("vazkii.patchouli:Patchouli:$patchouliVersion")
+
+  "jmhImplementation"("org.openjdk.jmh:jmh-core:$jmhVersion")
+  "jmhAnnotationProcessor"("org.openjdk.jmh:jmh-generator-annprocess:$jmhVersion")
 }
 
 tasks {
@@ -110,6 +144,11 @@ tasks {
     manifest {
       attributes["Implementation-Version"] = project.version
     }
+    from(sourceSets["vector"].output)
+  }
+
+  named<JavaCompile>("compileVectorJava") {
+    options.compilerArgs.addAll(vectorModuleArgs)
   }
 
   named("neoForgeIdeSync") {
@@ -120,6 +159,7 @@ tasks {
     useJUnitPlatform()
     maxHeapSize = "4g"
     minHeapSize = "1g"
+    jvmArgs(vectorModuleArgs)
     outputs.upToDateWhen { false }
     testLogging {
       events("failed", "standardError")
@@ -129,4 +169,36 @@ tasks {
       showStackTraces = true
     }
   }
+
+  // Runs the JMH benchmarks inside the unit test environment, so mixins are applied and the
+  // maps are read from the same game directory. Results are written to build/reports/jmh.
+  register<Test>("jmh") {
+    group = "verification"
+    description = "Runs the JMH benchmarks of the map-driven world generation."
+
+    val unitTest = named<Test>("test").get()
+    dependsOn(unitTest.dependsOn)
+    testClassesDirs = sourceSets["jmh"].output.classesDirs
+    classpath = sourceSets["jmh"].runtimeClasspath + unitTest.classpath
+    workingDir = unitTest.workingDir
+    jvmArgumentProviders.addAll(unitTest.jvmArgumentProviders)
+    systemProperties(unitTest.systemProperties)
+    jvmArgs(vectorModuleArgs)
+
+    useJUnitPlatform()
+    maxHeapSize = "4g"
+    minHeapSize = "4g"
+    outputs.upToDateWhen { false }
+    testLogging {
+      events("failed", "standardOut", "standardError")
+      showStandardStreams = true
+    }
+
+    val reportFile = layout.buildDirectory.file("reports/jmh/results.json")
+    systemProperty("jmh.include", findProperty("jmh.include") ?: ".*")
+    systemProperty("jmh.result", reportFile.get().asFile.absolutePath)
+    doFirst {
+      reportFile.get().asFile.parentFile.mkdirs()
+    }
+  }
 }
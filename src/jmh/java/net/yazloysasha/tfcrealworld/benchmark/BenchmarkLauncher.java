@@ -0,0 +1,29 @@
+package net.yazloysasha.tfcrealworld.benchmark;
+
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of the {@code jmh} Gradle task.
+ *
+ * The benchmarks run without forking, inside the JVM of the unit test environment,
+ * because the mixins are only applied there.
+ */
+public class BenchmarkLauncher {
+
+  @Test
+  public void runBenchmarks() throws RunnerException {
+    final Options options = new OptionsBuilder()
+      .include(System.getProperty("jmh.include", ".*"))
+      .forks(0)
+      .shouldFailOnError(true)
+      .resultFormat(ResultFormatType.JSON)
+      .result(System.getProperty("jmh.result", "jmh-result.json"))
+      .build();
+    new Runner(options).run();
+  }
+}
@@ -0,0 +1,44 @@
+package net.yazloysasha.tfcrealworld.benchmark;
+
+import java.util.Random;
+import net.yazloysasha.tfcrealworld.world.noise.BasePNGNoise;
+
+/**
+ * Fixed set of grid points spread over the map, so every run samples the same coordinates.
+ */
+final class BenchmarkPoints {
+
+  static final long SEED = 1234567890L;
+
+  private static final int COUNT = 4096; // Power of two, so the index can be masked
+
+  private final int[] xs = new int[COUNT];
+  private final int[] zs = new int[COUNT];
+  private int next;
+
+  BenchmarkPoints(BasePNGNoise noise) {
+    final Random random = new Random(SEED);
+    final int radiusX = (int) noise.getWorldRadiusGridX();
+    final int radiusZ = (int) noise.getWorldRadiusGridZ();
+    for (int i = 0; i < COUNT; i++) {
+      xs[i] = random.nextInt(-radiusX, radiusX + 1);
+      zs[i] = random.nextInt(-radiusZ, radiusZ + 1);
+    }
+  }
+
+  /**
+   * Advances to the next point and returns its index.
+   */
+  int next() {
+    next = (next + 1) & (COUNT - 1);
+    return next;
+  }
+
+  int x(int index) {
+    return xs[index];
+  }
+
+  int z(int index) {
+    return zs[index];
+  }
+}
@@ -0,0 +1,114 @@
+package net.yazloysasha.tfcrealworld.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntPredicate;
+import net.yazloysasha.tfcrealworld.config.TFCRealWorldConfig;
+import net.yazloysasha.tfcrealworld.test.region.ContinentMaps;
+import net.yazloysasha.tfcrealworld.world.noise.PNGContinentNoise;
+import net.yazloysasha.tfcrealworld.world.region.GlobalOceanDistanceCache;
+import net.yazloysasha.tfcrealworld.world.region.OceanDistanceTransform;
+import net.yazloysasha.tfcrealworld.world.region.WestCoastSweep;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Distance to ocean lookups and the transforms that build the distance maps.
+ * The transforms also run on the bundled map upscaled, closer to real-world sizes.
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class DistanceCacheBenchmarks {
+
+  @Param({ "1", "8" })
+  public int upscale;
+
+  private GlobalOceanDistanceCache oceanCache;
+  private BenchmarkPoints points;
+  private int width;
+  private int height;
+  private IntPredicate isOcean;
+  private byte[] distanceMap;
+
+  @Setup
+  public void setup() {
+    final PNGContinentNoise continentNoise = ContinentMaps.continentNoise();
+    GlobalOceanDistanceCache.initialize(
+      continentNoise,
+      TFCRealWorldConfig.getEuclideanDistances()
+    );
+    oceanCache = GlobalOceanDistanceCache.getInstance();
+    points = new BenchmarkPoints(continentNoise);
+
+    width = continentNoise.getWidth() * upscale;
+    height = continentNoise.getHeight() * upscale;
+    isOcean = ContinentMaps.oceanPredicate(continentNoise, width, upscale);
+    distanceMap = new byte[width * height];
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.NANOSECONDS)
+  public byte oceanDistance() {
+    final int i = points.next();
+    return oceanCache.getDistance(points.x(i), points.z(i), (i & 1) == 0);
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public byte[] buildOceanDistancesParallel() {
+    OceanDistanceTransform.computeParallel(distanceMap, width, height, isOcean);
+    return distanceMap;
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public byte[] buildOceanDistancesSequential() {
+    OceanDistanceTransform.computeSequential(
+      distanceMap,
+      width,
+      height,
+      isOcean
+    );
+    return distanceMap;
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public byte[] buildOceanDistancesEuclidean() {
+    OceanDistanceTransform.computeEuclidean(
+      distanceMap,
+      width,
+      height,
+      isOcean
+    );
+    return distanceMap;
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public byte[] sweepWestCoastParallel() {
+    WestCoastSweep.computeParallel(distanceMap, width, height, isOcean);
+    return distanceMap;
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public byte[] sweepWestCoastSequential() {
+    WestCoastSweep.computeSequential(distanceMap, width, height, isOcean);
+    return distanceMap;
+  }
+}
@@ -0,0 +1,77 @@
+package net.yazloysasha.tfcrealworld.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import net.yazloysasha.tfcrealworld.world.noise.BilinearKernel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Bilinear interpolation of one row strip, with the scalar and the Vector API kernels.
+ * Strips are as wide as a region grid, so this excludes gathering the corners from the maps.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class InterpolationBenchmarks {
+
+  @Param({ "32", "128" })
+  public int length;
+
+  private double[] c00;
+  private double[] c10;
+  private double[] c01;
+  private double[] c11;
+  private double[] fx;
+  private double[] out;
+  private BilinearKernel vector;
+
+  @Setup
+  public void setup() {
+    final Random random = new Random(BenchmarkPoints.SEED);
+    c00 = randomValues(random);
+    c10 = randomValues(random);
+    c01 = randomValues(random);
+    c11 = randomValues(random);
+    fx = new double[length];
+    for (int i = 0; i < length; i++) {
+      fx[i] = random.nextDouble();
+    }
+    out = new double[length];
+
+    final BilinearKernel kernel = BilinearKernel.vector();
+    vector = kernel != null ? kernel : BilinearKernel.scalar();
+  }
+
+  private double[] randomValues(Random random) {
+    final double[] values = new double[length];
+    for (int i = 0; i < length; i++) {
+      values[i] = random.nextInt(256);
+    }
+    return values;
+  }
+
+  @Benchmark
+  public double[] scalar() {
+    BilinearKernel.scalar()
+      .interpolate(c00, c10, c01, c11, fx, 0.375, out, length);
+    return out;
+  }
+
+  // Same as scalar when the JVM was started without the incubator module
+  @Benchmark
+  public double[] vector() {
+    vector.interpolate(c00, c10, c01, c11, fx, 0.375, out, length);
+    return out;
+  }
+}
@@ -0,0 +1,67 @@
+package net.yazloysasha.tfcrealworld.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+import net.yazloysasha.tfcrealworld.util.MapPathHelper;
+import net.yazloysasha.tfcrealworld.world.noise.KoppenParameterCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Building the Köppen parameter tables, both from scratch and from the on-disk cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+public class KoppenParameterCacheBenchmarks {
+
+  private static final String TABLES_FILE = "koppen_parameters.bin";
+
+  @State(Scope.Benchmark)
+  public static class Cold {
+
+    @Setup(Level.Invocation)
+    public void setup() throws IOException {
+      KoppenParameterCache.clear();
+      Files.deleteIfExists(
+        MapPathHelper.getMapsDirectory().resolve(TABLES_FILE)
+      );
+    }
+  }
+
+  @State(Scope.Benchmark)
+  public static class Warm {
+
+    @Setup(Level.Trial)
+    public void prepare() {
+      // Make sure the tables are on disk
+      KoppenParameterCache.getInstance();
+    }
+
+    @Setup(Level.Invocation)
+    public void setup() {
+      KoppenParameterCache.clear();
+    }
+  }
+
+  @Benchmark
+  public KoppenParameterCache buildCache(Cold cold) {
+    return KoppenParameterCache.getInstance();
+  }
+
+  @Benchmark
+  public KoppenParameterCache loadCache(Warm warm) {
+    return KoppenParameterCache.getInstance();
+  }
+}
@@ -0,0 +1,92 @@
+package net.yazloysasha.tfcrealworld.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import net.yazloysasha.tfcrealworld.config.TFCRealWorldConfig;
+import net.yazloysasha.tfcrealworld.world.noise.KoppenBasedRainfallNoise;
+import net.yazloysasha.tfcrealworld.world.noise.KoppenBasedRainfallVarianceNoise;
+import net.yazloysasha.tfcrealworld.world.noise.KoppenBasedTemperatureNoise;
+import net.yazloysasha.tfcrealworld.world.noise.KoppenClimateSampler;
+import net.yazloysasha.tfcrealworld.world.noise.PNGContinentNoise;
+import net.yazloysasha.tfcrealworld.world.noise.PNGKoppenNoise;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Per-point lookups of the PNG noises, as done for every region point and climate sample.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class MapNoiseBenchmarks {
+
+  private PNGContinentNoise continentNoise;
+  private PNGKoppenNoise koppenNoise;
+  private PNGKoppenNoise.ClimateInterpolationResult interpolation;
+  private KoppenBasedTemperatureNoise temperatureNoise;
+  private KoppenBasedRainfallNoise rainfallNoise;
+  private KoppenBasedRainfallVarianceNoise rainfallVarianceNoise;
+  private BenchmarkPoints points;
+
+  @Setup
+  public void setup() {
+    final int h = TFCRealWorldConfig.getHorizontalWorldScale();
+    final int v = TFCRealWorldConfig.getVerticalWorldScale();
+    continentNoise = new PNGContinentNoise(h, v);
+    koppenNoise = new PNGKoppenNoise(h, v);
+    interpolation = new PNGKoppenNoise.ClimateInterpolationResult();
+
+    final KoppenClimateSampler sampler = new KoppenClimateSampler(
+      koppenNoise,
+      BenchmarkPoints.SEED
+    );
+    temperatureNoise = new KoppenBasedTemperatureNoise(sampler);
+    rainfallNoise = new KoppenBasedRainfallNoise(sampler);
+    rainfallVarianceNoise = new KoppenBasedRainfallVarianceNoise(sampler);
+    points = new BenchmarkPoints(continentNoise);
+  }
+
+  @Benchmark
+  public double continentNoise() {
+    final int i = points.next();
+    return continentNoise.noise(points.x(i), points.z(i));
+  }
+
+  @Benchmark
+  public PNGKoppenNoise.ClimateInterpolationResult climateInterpolation() {
+    final int i = points.next();
+    return koppenNoise.getClimateInterpolation(
+      points.x(i),
+      points.z(i),
+      interpolation
+    );
+  }
+
+  // Each of the Köppen noises is measured on its own, so every call samples a new point
+
+  @Benchmark
+  public double koppenTemperature() {
+    final int i = points.next();
+    return temperatureNoise.noise(points.x(i), points.z(i));
+  }
+
+  @Benchmark
+  public double koppenRainfall() {
+    final int i = points.next();
+    return rainfallNoise.noise(points.x(i), points.z(i));
+  }
+
+  @Benchmark
+  public double koppenRainfallVariance() {
+    final int i = points.next();
+    return rainfallVarianceNoise.noise(points.x(i), points.z(i));
+  }
+}
@@ -0,0 +1,52 @@
+package net.yazloysasha.tfcrealworld.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import net.dries007.tfc.world.Seed;
+import net.dries007.tfc.world.region.RegionGenerator;
+import net.yazloysasha.tfcrealworld.test.drawing.BuiltinWorldPreset;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Full region generation with all map-driven stages, using the maps of the test game directory.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class RegionGeneratorBenchmarks {
+
+  private static final int STEP = 7; // Roughly one region apart in grid units
+  private static final int REGIONS_PER_ROW = 40;
+
+  private RegionGenerator generator;
+  private int next;
+
+  @Setup
+  public void setup() {
+    generator = new RegionGenerator(
+      BuiltinWorldPreset.defaultSettings(),
+      Seed.of(BenchmarkPoints.SEED)
+    );
+  }
+
+  @Benchmark
+  public void visualizeRegion(Blackhole blackhole) {
+    // Walk a fixed square of regions around the map center
+    next = (next + 1) % (REGIONS_PER_ROW * REGIONS_PER_ROW);
+    final int x = (next % REGIONS_PER_ROW - REGIONS_PER_ROW / 2) * STEP;
+    final int z = (next / REGIONS_PER_ROW - REGIONS_PER_ROW / 2) * STEP;
+    generator.visualizeRegion(x, z, (task, region) ->
+      blackhole.consume(region)
+    );
+  }
+}
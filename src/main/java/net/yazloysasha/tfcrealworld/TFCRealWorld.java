@@ -21,17 +21,22 @@ import net.neoforged.bus.api.IEventBus;
 import net.neoforged.fml.ModContainer;
 import net.neoforged.fml.common.Mod;
 import net.neoforged.fml.config.ModConfig;
+import net.neoforged.fml.event.config.ModConfigEvent;
 import net.neoforged.neoforge.client.event.ClientPlayerNetworkEvent;
 import net.neoforged.neoforge.common.NeoForge;
 import net.neoforged.neoforge.event.AddPackFindersEvent;
+import net.neoforged.neoforge.event.RegisterCommandsEvent;
 import net.neoforged.neoforge.event.entity.player.PlayerEvent;
 import net.neoforged.neoforge.event.level.LevelEvent;
+import net.neoforged.neoforge.event.tick.ServerTickEvent;
 import net.neoforged.neoforge.network.event.RegisterPayloadHandlersEvent;
 import net.neoforged.neoforge.network.registration.PayloadRegistrar;
+import net.yazloysasha.tfcrealworld.command.TFCRealWorldCommand;
 import net.yazloysasha.tfcrealworld.config.TFCRealWorldConfig;
 import net.yazloysasha.tfcrealworld.network.ConfigSyncPacket;
 import net.yazloysasha.tfcrealworld.util.DynamicPackFinder;
 import net.yazloysasha.tfcrealworld.util.MapPathHelper;
+import net.yazloysasha.tfcrealworld.util.WorldgenMetrics;
 import org.slf4j.Logger;
 
 @Mod(TFCRealWorld.MOD_ID)
@@ -41,6 +46,8 @@ public final class TFCRealWorld {
   public static final String MOD_NAME = "TFC: Real World";
   public static final Logger LOGGER = LogUtils.getLogger();
 
+  private long lastMetricsDump = System.nanoTime();
+
   public TFCRealWorld(ModContainer container, IEventBus modEventBus) {
     LOGGER.info(
       "Initializing {} v{}",
@@ -54,6 +61,16 @@ public final class TFCRealWorld {
       "tfc_real_world/common.toml"
     );
 
+    modEventBus.addListener(
+      ModConfigEvent.Loading.class,
+      this::onConfigChanged
+    );
+
+    modEventBus.addListener(
+      ModConfigEvent.Reloading.class,
+      this::onConfigChanged
+    );
+
     modEventBus.addListener(
       AddPackFindersEvent.class,
       DynamicPackFinder::registerPack
@@ -89,9 +106,42 @@ public final class TFCRealWorld {
       this::onLevelUnload
     );
 
+    NeoForge.EVENT_BUS.addListener(
+      RegisterCommandsEvent.class,
+      this::registerCommands
+    );
+
+    NeoForge.EVENT_BUS.addListener(
+      ServerTickEvent.Post.class,
+      this::onServerTick
+    );
+
     setupMapsDirectory();
   }
 
+  private void onConfigChanged(ModConfigEvent event) {
+    if (event.getConfig().getSpec() == TFCRealWorldConfig.SPEC) {
+      TFCRealWorldConfig.refresh();
+    }
+  }
+
+  private void registerCommands(RegisterCommandsEvent event) {
+    TFCRealWorldCommand.register(event.getDispatcher());
+  }
+
+  private void onServerTick(ServerTickEvent.Post event) {
+    final int interval = TFCRealWorldConfig.getMetricsLogInterval();
+    if (interval <= 0) {
+      return;
+    }
+
+    final long now = System.nanoTime();
+    if (now - lastMetricsDump >= interval * 1_000_000_000L) {
+      lastMetricsDump = now;
+      WorldgenMetrics.logReport();
+    }
+  }
+
   private void registerNetwork(RegisterPayloadHandlersEvent event) {
     final PayloadRegistrar registrar = event.registrar(TFCRealWorld.MOD_ID);
     registrar.playToClient(
@@ -170,7 +220,7 @@ public final class TFCRealWorld {
     net.yazloysasha.tfcrealworld.world.region.GlobalOceanDistanceCache.clear();
     net.yazloysasha.tfcrealworld.world.region.GlobalWestCoastDistanceCache.clear();
     net.yazloysasha.tfcrealworld.world.noise.KoppenParameterCache.clear();
-    net.yazloysasha.tfcrealworld.world.noise.BasePNGNoise.clearImageCache();
+    net.yazloysasha.tfcrealworld.world.noise.MapPlane.clearCache();
   }
 
   private void setupMapsDirectory() {
@@ -0,0 +1,61 @@
+package net.yazloysasha.tfcrealworld.command;
+
+import com.mojang.brigadier.CommandDispatcher;
+import java.util.List;
+import net.minecraft.commands.CommandSourceStack;
+import net.minecraft.commands.Commands;
+import net.minecraft.network.chat.Component;
+import net.yazloysasha.tfcrealworld.util.WorldgenMetrics;
+
+/**
+ * {@code /tfcrealworld metrics [reset]}: shows or resets the world generation metrics.
+ */
+public class TFCRealWorldCommand {
+
+  public static void register(
+    CommandDispatcher<CommandSourceStack> dispatcher
+  ) {
+    dispatcher.register(
+      Commands.literal("tfcrealworld")
+        .requires(source -> source.hasPermission(2))
+        .then(
+          Commands.literal("metrics")
+            .executes(context -> showMetrics(context.getSource()))
+            .then(
+              Commands.literal("reset").executes(context ->
+                resetMetrics(context.getSource())
+              )
+            )
+        )
+    );
+  }
+
+  private static int showMetrics(CommandSourceStack source) {
+    final List<String> lines = WorldgenMetrics.report();
+    if (lines.isEmpty()) {
+      source.sendSuccess(
+        () -> Component.literal("No world generation metrics recorded yet"),
+        false
+      );
+      return 0;
+    }
+
+    source.sendSuccess(
+      () -> Component.literal("World generation metrics:"),
+      false
+    );
+    for (String line : lines) {
+      source.sendSuccess(() -> Component.literal(line), false);
+    }
+    return lines.size();
+  }
+
+  private static int resetMetrics(CommandSourceStack source) {
+    WorldgenMetrics.reset();
+    source.sendSuccess(
+      () -> Component.literal("World generation metrics reset"),
+      true
+    );
+    return 1;
+  }
+}
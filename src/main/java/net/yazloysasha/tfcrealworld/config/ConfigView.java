@@ -0,0 +1,33 @@
+package net.yazloysasha.tfcrealworld.config;
+
+/**
+ * Immutable snapshot of the effective configuration: the server values while connected to a
+ * server which synced them, the local config otherwise, and always the local performance settings.
+ *
+ * A new snapshot is published by {@link TFCRealWorldConfig#refresh} whenever one of the sources
+ * changes, so readers only load one volatile field and then read primitives.
+ */
+public record ConfigView(
+  double continentalness,
+  boolean finiteContinents,
+  boolean flatBedrock,
+  double grassDensity,
+  int spawnCenterX,
+  int spawnCenterZ,
+  int spawnDistance,
+  int temperatureScale,
+  int rainfallScale,
+  int verticalWorldScale,
+  int horizontalWorldScale,
+  boolean continentFromMap,
+  boolean altitudeFromMap,
+  boolean hotspotsFromMap,
+  boolean koppenFromMap,
+  int poleOffset,
+  boolean poleLooping,
+  boolean canyonsNotVolcanic,
+  int metricsLogInterval,
+  int climateCacheSize,
+  boolean bakeClimate,
+  boolean euclideanDistances
+) {}
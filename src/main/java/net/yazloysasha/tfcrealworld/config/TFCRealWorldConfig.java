@@ -1,6 +1,7 @@
 package net.yazloysasha.tfcrealworld.config;
 
 import net.neoforged.neoforge.common.ModConfigSpec;
+import org.jetbrains.annotations.Nullable;
 
 public class TFCRealWorldConfig {
 
@@ -30,6 +31,12 @@ public class TFCRealWorldConfig {
   public static final ModConfigSpec.BooleanValue POLE_LOOPING;
   public static final ModConfigSpec.BooleanValue CANYONS_NOT_VOLCANIC;
 
+  // Performance settings (local to each side, not synced)
+  public static final ModConfigSpec.IntValue METRICS_LOG_INTERVAL;
+  public static final ModConfigSpec.IntValue CLIMATE_CACHE_SIZE;
+  public static final ModConfigSpec.BooleanValue BAKE_CLIMATE;
+  public static final ModConfigSpec.BooleanValue EUCLIDEAN_DISTANCES;
+
   static {
     BUILDER.comment("TFC: Real World Configuration").push("world_generation");
 
@@ -168,10 +175,42 @@ public class TFCRealWorldConfig {
     );
     CANYONS_NOT_VOLCANIC = BUILDER.define("canyons_not_volcanic", true);
 
+    BUILDER.pop();
+    BUILDER.push("performance");
+
+    METRICS_LOG_INTERVAL = BUILDER.comment(
+      "Interval in seconds between world generation metrics dumps to the server log (0 to disable). " +
+      "The metrics can also be shown at any time with /tfcrealworld metrics."
+    ).defineInRange("metrics_log_interval", 0, 0, 86400);
+
+    BUILDER.comment("");
+
+    CLIMATE_CACHE_SIZE = BUILDER.comment(
+      "Number of grid points whose Köppen climate samples are kept for overlapping regions (0 to disable). " +
+      "Rounded up to a power of two, each entry takes about 36 bytes."
+    ).defineInRange("climate_cache_size", 65536, 0, 1 << 24);
+
+    BUILDER.comment("");
+
+    BAKE_CLIMATE = BUILDER.comment(
+      "Whether to bake the Köppen climate of every grid cell inside the map when the world loads (true) or sample it on demand (false). " +
+      "The baked values are saved next to the koppen map, take 6 bytes per grid cell and are quantised to about 0.01 °C, 0.02 mm and 0.00003."
+    ).define("bake_climate", false);
+
+    BUILDER.comment("");
+
+    EUCLIDEAN_DISTANCES = BUILDER.comment(
+      "Whether the distances to ocean and to the west coast are built with an exact Euclidean distance transform (true) or a breadth-first search (false). " +
+      "The transform is faster on large maps and has no diagonal bias, but slightly changes the generated terrain. Changing it rebuilds the cached distance maps."
+    ).define("euclidean_distances", false);
+
     BUILDER.pop();
     SPEC = BUILDER.build();
   }
 
+  @Nullable
+  private static volatile ConfigView view = null;
+
   private static boolean serverConfigActive = false;
   private static Double serverContinentalness;
   private static Boolean serverFiniteContinents;
@@ -231,6 +270,7 @@ public class TFCRealWorldConfig {
     serverPoleLooping = poleLooping;
     serverCanyonsNotVolcanic = canyonsNotVolcanic;
     serverConfigActive = true;
+    refresh();
   }
 
   public static void clearServerConfig() {
@@ -253,113 +293,153 @@ public class TFCRealWorldConfig {
     serverPoleOffset = null;
     serverPoleLooping = null;
     serverCanyonsNotVolcanic = null;
+    refresh();
+  }
+
+  /**
+   * The effective configuration. Hot paths should read it once and use its fields.
+   */
+  public static ConfigView view() {
+    ConfigView current = view;
+    return current != null ? current : initialView();
+  }
+
+  /**
+   * Publishes a new {@link ConfigView} from the current server and local values.
+   * Called when the local config is loaded or reloaded, and when the server config changes.
+   */
+  public static synchronized void refresh() {
+    view = snapshot();
+  }
+
+  private static synchronized ConfigView initialView() {
+    if (view == null) {
+      view = snapshot();
+    }
+    return view;
+  }
+
+  private static ConfigView snapshot() {
+    return new ConfigView(
+      resolve(serverContinentalness, CONTINENTALNESS),
+      resolve(serverFiniteContinents, FINITE_CONTINENTS),
+      resolve(serverFlatBedrock, FLAT_BEDROCK),
+      resolve(serverGrassDensity, GRASS_DENSITY),
+      resolve(serverSpawnCenterX, SPAWN_CENTER_X),
+      resolve(serverSpawnCenterZ, SPAWN_CENTER_Z),
+      resolve(serverSpawnDistance, SPAWN_DISTANCE),
+      resolve(serverTemperatureScale, TEMPERATURE_SCALE),
+      resolve(serverRainfallScale, RAINFALL_SCALE),
+      resolve(serverVerticalWorldScale, VERTICAL_WORLD_SCALE),
+      resolve(serverHorizontalWorldScale, HORIZONTAL_WORLD_SCALE),
+      resolve(serverContinentFromMap, CONTINENT_FROM_MAP),
+      resolve(serverAltitudeFromMap, ALTITUDE_FROM_MAP),
+      resolve(serverHotspotsFromMap, HOTSPOTS_FROM_MAP),
+      resolve(serverKoppenFromMap, KOPPEN_FROM_MAP),
+      resolve(serverPoleOffset, POLE_OFFSET),
+      resolve(serverPoleLooping, POLE_LOOPING),
+      resolve(serverCanyonsNotVolcanic, CANYONS_NOT_VOLCANIC),
+      METRICS_LOG_INTERVAL.get(),
+      CLIMATE_CACHE_SIZE.get(),
+      BAKE_CLIMATE.get(),
+      EUCLIDEAN_DISTANCES.get()
+    );
+  }
+
+  private static <T> T resolve(
+    T serverValue,
+    ModConfigSpec.ConfigValue<T> localValue
+  ) {
+    return serverConfigActive && serverValue != null
+      ? serverValue
+      : localValue.get();
   }
 
   public static double getContinentalness() {
-    return serverConfigActive && serverContinentalness != null
-      ? serverContinentalness
-      : CONTINENTALNESS.get();
+    return view().continentalness();
   }
 
   public static boolean getFiniteContinents() {
-    return serverConfigActive && serverFiniteContinents != null
-      ? serverFiniteContinents
-      : FINITE_CONTINENTS.get();
+    return view().finiteContinents();
   }
 
   public static boolean getFlatBedrock() {
-    return serverConfigActive && serverFlatBedrock != null
-      ? serverFlatBedrock
-      : FLAT_BEDROCK.get();
+    return view().flatBedrock();
   }
 
   public static double getGrassDensity() {
-    return serverConfigActive && serverGrassDensity != null
-      ? serverGrassDensity
-      : GRASS_DENSITY.get();
+    return view().grassDensity();
   }
 
   public static int getSpawnCenterX() {
-    return serverConfigActive && serverSpawnCenterX != null
-      ? serverSpawnCenterX
-      : SPAWN_CENTER_X.get();
+    return view().spawnCenterX();
   }
 
   public static int getSpawnCenterZ() {
-    return serverConfigActive && serverSpawnCenterZ != null
-      ? serverSpawnCenterZ
-      : SPAWN_CENTER_Z.get();
+    return view().spawnCenterZ();
   }
 
   public static int getSpawnDistance() {
-    return serverConfigActive && serverSpawnDistance != null
-      ? serverSpawnDistance
-      : SPAWN_DISTANCE.get();
+    return view().spawnDistance();
   }
 
   public static int getTemperatureScale() {
-    return serverConfigActive && serverTemperatureScale != null
-      ? serverTemperatureScale
-      : TEMPERATURE_SCALE.get();
+    return view().temperatureScale();
   }
 
   public static int getRainfallScale() {
-    return serverConfigActive && serverRainfallScale != null
-      ? serverRainfallScale
-      : RAINFALL_SCALE.get();
+    return view().rainfallScale();
   }
 
   public static int getVerticalWorldScale() {
-    return serverConfigActive && serverVerticalWorldScale != null
-      ? serverVerticalWorldScale
-      : VERTICAL_WORLD_SCALE.get();
+    return view().verticalWorldScale();
   }
 
   public static int getHorizontalWorldScale() {
-    return serverConfigActive && serverHorizontalWorldScale != null
-      ? serverHorizontalWorldScale
-      : HORIZONTAL_WORLD_SCALE.get();
+    return view().horizontalWorldScale();
   }
 
   public static boolean getContinentFromMap() {
-    return serverConfigActive && serverContinentFromMap != null
-      ? serverContinentFromMap
-      : CONTINENT_FROM_MAP.get();
+    return view().continentFromMap();
   }
 
   public static boolean getAltitudeFromMap() {
-    return serverConfigActive && serverAltitudeFromMap != null
-      ? serverAltitudeFromMap
-      : ALTITUDE_FROM_MAP.get();
+    return view().altitudeFromMap();
   }
 
   public static boolean getHotspotsFromMap() {
-    return serverConfigActive && serverHotspotsFromMap != null
-      ? serverHotspotsFromMap
-      : HOTSPOTS_FROM_MAP.get();
+    return view().hotspotsFromMap();
   }
 
   public static boolean getKoppenFromMap() {
-    return serverConfigActive && serverKoppenFromMap != null
-      ? serverKoppenFromMap
-      : KOPPEN_FROM_MAP.get();
+    return view().koppenFromMap();
   }
 
   public static int getPoleOffset() {
-    return serverConfigActive && serverPoleOffset != null
-      ? serverPoleOffset
-      : POLE_OFFSET.get();
+    return view().poleOffset();
   }
 
   public static boolean getPoleLooping() {
-    return serverConfigActive && serverPoleLooping != null
-      ? serverPoleLooping
-      : POLE_LOOPING.get();
+    return view().poleLooping();
   }
 
   public static boolean getCanyonsNotVolcanic() {
-    return serverConfigActive && serverCanyonsNotVolcanic != null
-      ? serverCanyonsNotVolcanic
-      : CANYONS_NOT_VOLCANIC.get();
+    return view().canyonsNotVolcanic();
+  }
+
+  public static int getMetricsLogInterval() {
+    return view().metricsLogInterval();
+  }
+
+  public static int getClimateCacheSize() {
+    return view().climateCacheSize();
+  }
+
+  public static boolean getBakeClimate() {
+    return view().bakeClimate();
+  }
+
+  public static boolean getEuclideanDistances() {
+    return view().euclideanDistances();
   }
 }
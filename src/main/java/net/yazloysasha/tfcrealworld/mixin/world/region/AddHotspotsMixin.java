@@ -2,9 +2,9 @@ package net.yazloysasha.tfcrealworld.mixin.world.region;
 
 import net.dries007.tfc.world.region.AddHotspots;
 import net.dries007.tfc.world.region.RegionGenerator;
-import net.yazloysasha.tfcrealworld.config.TFCRealWorldConfig;
-import net.yazloysasha.tfcrealworld.util.HotspotsNoiseRegistry;
-import net.yazloysasha.tfcrealworld.world.noise.PNGHotspotsNoise;
+import net.yazloysasha.tfcrealworld.util.RegionGeneratorConfig;
+import net.yazloysasha.tfcrealworld.util.WorldgenMetrics;
+import net.yazloysasha.tfcrealworld.world.region.RegionMapAnnotator;
 import org.spongepowered.asm.mixin.Mixin;
 import org.spongepowered.asm.mixin.injection.At;
 import org.spongepowered.asm.mixin.injection.Inject;
@@ -18,25 +18,30 @@ public class AddHotspotsMixin {
     RegionGenerator.Context context,
     CallbackInfo ci
   ) {
-    if (TFCRealWorldConfig.getHotspotsFromMap()) {
-      final PNGHotspotsNoise hotspotsNoise = HotspotsNoiseRegistry.get(
-        context.generator()
-      );
-      if (hotspotsNoise == null) {
+    if (RegionGeneratorConfig.get(context.generator()).hotspotsFromMap()) {
+      final RegionMapAnnotator.MapAnnotations annotations =
+        RegionMapAnnotator.annotations(context.region, context.generator());
+      if (annotations == null || annotations.hotSpotAges == null) {
         return;
       }
 
+      // Only the copy, the map annotations are recorded under their own stage
+      final long start = WorldgenMetrics.start();
+
       for (final var point : context.region.points()) {
         if (point != null) {
-          byte mapAge = hotspotsNoise.getHotSpotAge(
-            (double) point.x,
-            (double) point.z
-          );
+          byte mapAge =
+            annotations.hotSpotAges[annotations.grid.indexOf(point)];
           if (mapAge > 0) {
             point.hotSpotAge = mapAge;
           }
         }
       }
+      WorldgenMetrics.record(
+        WorldgenMetrics.Stage.ADD_HOTSPOTS,
+        start,
+        context.region
+      );
     }
   }
 }
@@ -2,8 +2,8 @@ package net.yazloysasha.tfcrealworld.mixin.world.region;
 
 import net.dries007.tfc.world.region.AnnotateBaseLandHeight;
 import net.dries007.tfc.world.region.RegionGenerator;
-import net.yazloysasha.tfcrealworld.config.TFCRealWorldConfig;
-import net.yazloysasha.tfcrealworld.world.region.AltitudeCalculator;
+import net.yazloysasha.tfcrealworld.util.RegionGeneratorConfig;
+import net.yazloysasha.tfcrealworld.world.region.MapRegionTask;
 import org.spongepowered.asm.mixin.Mixin;
 import org.spongepowered.asm.mixin.injection.At;
 import org.spongepowered.asm.mixin.injection.Inject;
@@ -17,8 +17,8 @@ public class AnnotateBaseLandHeightMixin {
     RegionGenerator.Context context,
     CallbackInfo ci
   ) {
-    if (TFCRealWorldConfig.getAltitudeFromMap()) {
-      AltitudeCalculator.calculateAltitude(context.region, context.generator());
+    if (RegionGeneratorConfig.get(context.generator()).altitudeFromMap()) {
+      MapRegionTask.BASE_LAND_HEIGHT.apply(context);
       ci.cancel();
     }
   }
@@ -1,9 +1,9 @@
 package net.yazloysasha.tfcrealworld.mixin.world.region;
 
 import net.dries007.tfc.world.region.AnnotateBiomeAltitude;
-import net.dries007.tfc.world.region.Region;
 import net.dries007.tfc.world.region.RegionGenerator;
-import net.yazloysasha.tfcrealworld.config.TFCRealWorldConfig;
+import net.yazloysasha.tfcrealworld.util.RegionGeneratorConfig;
+import net.yazloysasha.tfcrealworld.world.region.MapRegionTask;
 import org.spongepowered.asm.mixin.Mixin;
 import org.spongepowered.asm.mixin.injection.At;
 import org.spongepowered.asm.mixin.injection.Inject;
@@ -21,33 +21,9 @@ public class AnnotateBiomeAltitudeMixin {
     RegionGenerator.Context context,
     CallbackInfo ci
   ) {
-    if (TFCRealWorldConfig.getAltitudeFromMap()) {
-      calculateBiomeAltitudeFromMap(context.region);
+    if (RegionGeneratorConfig.get(context.generator()).altitudeFromMap()) {
+      MapRegionTask.BIOME_ALTITUDE.apply(context);
       ci.cancel();
     }
   }
-
-  /**
-   * Calculates biomeAltitude directly based on baseLandHeight from altitude map
-   */
-  private void calculateBiomeAltitudeFromMap(Region region) {
-    final int WIDTH = AnnotateBiomeAltitude.WIDTH;
-
-    for (final var point : region.points()) {
-      if (point != null && point.land()) {
-        final int baseLandHeight = Byte.toUnsignedInt(point.baseLandHeight);
-
-        if (baseLandHeight >= 16) {
-          point.setMountain();
-          point.biomeAltitude = (byte) (3 * WIDTH);
-        } else if (baseLandHeight >= 8) {
-          point.biomeAltitude = (byte) (2 * WIDTH);
-        } else if (baseLandHeight >= 3) {
-          point.biomeAltitude = (byte) WIDTH;
-        } else {
-          point.biomeAltitude = 0;
-        }
-      }
-    }
-  }
 }
@@ -3,7 +3,8 @@ package net.yazloysasha.tfcrealworld.mixin.world.region;
 import net.dries007.tfc.world.region.AnnotateClimate;
 import net.dries007.tfc.world.region.Region;
 import net.dries007.tfc.world.region.RegionGenerator;
-import net.yazloysasha.tfcrealworld.config.TFCRealWorldConfig;
+import net.yazloysasha.tfcrealworld.util.RegionGeneratorConfig;
+import net.yazloysasha.tfcrealworld.util.WorldgenMetrics;
 import org.spongepowered.asm.mixin.Mixin;
 import org.spongepowered.asm.mixin.injection.At;
 import org.spongepowered.asm.mixin.injection.Inject;
@@ -13,6 +14,26 @@ import org.spongepowered.asm.mixin.injection.callback.LocalCapture;
 @Mixin(AnnotateClimate.class)
 public class AnnotateClimateMixin {
 
+  @Inject(method = "apply", at = @At("HEAD"))
+  private void tfcrealworld$beginClimateTiming(
+    RegionGenerator.Context context,
+    CallbackInfo ci
+  ) {
+    if (RegionGeneratorConfig.get(context.generator()).koppenFromMap()) {
+      WorldgenMetrics.begin(WorldgenMetrics.Stage.CLIMATE);
+    }
+  }
+
+  @Inject(method = "apply", at = @At("RETURN"))
+  private void tfcrealworld$endClimateTiming(
+    RegionGenerator.Context context,
+    CallbackInfo ci
+  ) {
+    if (RegionGeneratorConfig.get(context.generator()).koppenFromMap()) {
+      WorldgenMetrics.end(WorldgenMetrics.Stage.CLIMATE, context.region);
+    }
+  }
+
   /**
    * Overrides rainfallVariance calculation when using map.
    */
@@ -35,7 +56,7 @@ public class AnnotateClimateMixin {
     int z,
     float bias
   ) {
-    if (TFCRealWorldConfig.getKoppenFromMap()) {
+    if (RegionGeneratorConfig.get(context.generator()).koppenFromMap()) {
       point.rainfallVariance = (float) context
         .generator()
         .rainfallVarianceNoise.noise(x, z);
@@ -56,9 +77,10 @@ public class AnnotateClimateMixin {
   private float tfcrealworld$preserveTemperatureBiasTarget(
     float delta,
     float start,
-    float end
+    float end,
+    RegionGenerator.Context context
   ) {
-    if (TFCRealWorldConfig.getKoppenFromMap()) {
+    if (RegionGeneratorConfig.get(context.generator()).koppenFromMap()) {
       return end;
     }
     return net.minecraft.util.Mth.lerp(delta, start, end);
@@ -78,9 +100,10 @@ public class AnnotateClimateMixin {
   private float tfcrealworld$preserveTemperatureFromMap(
     float delta,
     float start,
-    float end
+    float end,
+    RegionGenerator.Context context
   ) {
-    if (TFCRealWorldConfig.getKoppenFromMap()) {
+    if (RegionGeneratorConfig.get(context.generator()).koppenFromMap()) {
       return start;
     }
     return net.minecraft.util.Mth.lerp(delta, start, end);
@@ -100,9 +123,10 @@ public class AnnotateClimateMixin {
   private float tfcrealworld$preserveRainfallFromMap(
     float delta,
     float start,
-    float end
+    float end,
+    RegionGenerator.Context context
   ) {
-    if (TFCRealWorldConfig.getKoppenFromMap()) {
+    if (RegionGeneratorConfig.get(context.generator()).koppenFromMap()) {
       return start;
     }
     return net.minecraft.util.Mth.lerp(delta, start, end);
@@ -122,9 +146,10 @@ public class AnnotateClimateMixin {
   private float tfcrealworld$preserveRainfallVarianceFromMap(
     float delta,
     float start,
-    float end
+    float end,
+    RegionGenerator.Context context
   ) {
-    if (TFCRealWorldConfig.getKoppenFromMap()) {
+    if (RegionGeneratorConfig.get(context.generator()).koppenFromMap()) {
       return start;
     }
     return net.minecraft.util.Mth.lerp(delta, start, end);
@@ -2,8 +2,8 @@ package net.yazloysasha.tfcrealworld.mixin.world.region;
 
 import net.dries007.tfc.world.region.AnnotateDistanceToOcean;
 import net.dries007.tfc.world.region.RegionGenerator;
-import net.yazloysasha.tfcrealworld.config.TFCRealWorldConfig;
-import net.yazloysasha.tfcrealworld.world.region.OceanDistanceCalculator;
+import net.yazloysasha.tfcrealworld.util.RegionGeneratorConfig;
+import net.yazloysasha.tfcrealworld.world.region.MapRegionTask;
 import org.spongepowered.asm.mixin.Mixin;
 import org.spongepowered.asm.mixin.injection.At;
 import org.spongepowered.asm.mixin.injection.Inject;
@@ -17,11 +17,8 @@ public class AnnotateDistanceToOceanMixin {
     RegionGenerator.Context context,
     CallbackInfo ci
   ) {
-    if (TFCRealWorldConfig.getContinentFromMap()) {
-      OceanDistanceCalculator.calculateDistanceToOcean(
-        context.region,
-        context.generator()
-      );
+    if (RegionGeneratorConfig.get(context.generator()).continentFromMap()) {
+      MapRegionTask.DISTANCE_TO_OCEAN.apply(context);
       ci.cancel();
     }
   }
@@ -2,8 +2,9 @@ package net.yazloysasha.tfcrealworld.mixin.world.region;
 
 import net.dries007.tfc.world.region.AnnotateDistanceToWestCoast;
 import net.dries007.tfc.world.region.RegionGenerator;
-import net.yazloysasha.tfcrealworld.config.TFCRealWorldConfig;
-import net.yazloysasha.tfcrealworld.world.region.WestCoastDistanceCalculator;
+import net.yazloysasha.tfcrealworld.util.RegionGeneratorConfig;
+import net.yazloysasha.tfcrealworld.world.region.MapRegionTask;
+import net.yazloysasha.tfcrealworld.world.region.RegionMapAnnotator;
 import org.spongepowered.asm.mixin.Mixin;
 import org.spongepowered.asm.mixin.injection.At;
 import org.spongepowered.asm.mixin.injection.Inject;
@@ -17,12 +18,21 @@ public class AnnotateDistanceToWestCoastMixin {
     RegionGenerator.Context context,
     CallbackInfo ci
   ) {
-    if (TFCRealWorldConfig.getContinentFromMap()) {
-      WestCoastDistanceCalculator.calculateDistanceToWestCoast(
-        context.region,
-        context.generator()
-      );
+    if (RegionGeneratorConfig.get(context.generator()).continentFromMap()) {
+      MapRegionTask.DISTANCE_TO_WEST_COAST.apply(context);
       ci.cancel();
     }
   }
+
+  /**
+   * Without the continent map, TFC's west coast stage still runs after the hotspot and
+   * altitude stages, and no later stage reads the map annotations.
+   */
+  @Inject(method = "apply", at = @At("RETURN"))
+  private void tfcrealworld$releaseMapAnnotations(
+    RegionGenerator.Context context,
+    CallbackInfo ci
+  ) {
+    RegionMapAnnotator.release(context.region);
+  }
 }
@@ -3,28 +3,38 @@ package net.yazloysasha.tfcrealworld.mixin.world.region;
 import java.lang.reflect.Field;
 import net.dries007.tfc.world.noise.Noise2D;
 import net.dries007.tfc.world.region.RegionGenerator;
+import net.dries007.tfc.world.region.RegionTask;
 import net.dries007.tfc.world.settings.Settings;
+import net.yazloysasha.tfcrealworld.config.ConfigView;
 import net.yazloysasha.tfcrealworld.config.TFCRealWorldConfig;
 import net.yazloysasha.tfcrealworld.util.AltitudeNoiseRegistry;
 import net.yazloysasha.tfcrealworld.util.HotspotsNoiseRegistry;
+import net.yazloysasha.tfcrealworld.util.RegionGeneratorExtension;
 import net.yazloysasha.tfcrealworld.util.SettingsHelper;
+import net.yazloysasha.tfcrealworld.world.noise.BakedClimateRaster;
 import net.yazloysasha.tfcrealworld.world.noise.KoppenBasedRainfallNoise;
 import net.yazloysasha.tfcrealworld.world.noise.KoppenBasedRainfallVarianceNoise;
 import net.yazloysasha.tfcrealworld.world.noise.KoppenBasedTemperatureNoise;
+import net.yazloysasha.tfcrealworld.world.noise.KoppenClimateSampler;
 import net.yazloysasha.tfcrealworld.world.noise.PNGAltitudeNoise;
 import net.yazloysasha.tfcrealworld.world.noise.PNGContinentNoise;
 import net.yazloysasha.tfcrealworld.world.noise.PNGHotspotsNoise;
 import net.yazloysasha.tfcrealworld.world.noise.PNGKoppenNoise;
+import net.yazloysasha.tfcrealworld.world.region.MapLoadingPipeline;
+import net.yazloysasha.tfcrealworld.world.region.RegionTaskPlan;
+import org.objectweb.asm.Opcodes;
 import org.spongepowered.asm.mixin.Final;
 import org.spongepowered.asm.mixin.Mixin;
 import org.spongepowered.asm.mixin.Shadow;
+import org.spongepowered.asm.mixin.Unique;
 import org.spongepowered.asm.mixin.injection.At;
 import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.Redirect;
 import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
 import sun.misc.Unsafe;
 
 @Mixin(RegionGenerator.class)
-public class RegionGeneratorMixin {
+public class RegionGeneratorMixin implements RegionGeneratorExtension {
 
   @Shadow
   @Final
@@ -46,6 +56,19 @@ public class RegionGeneratorMixin {
   @Final
   private net.dries007.tfc.world.Seed seed;
 
+  // Volatile so worldgen threads see the noises set by the constructing thread
+  @Unique
+  private volatile PNGAltitudeNoise tfcrealworld$altitudeNoise;
+
+  @Unique
+  private volatile PNGHotspotsNoise tfcrealworld$hotspotsNoise;
+
+  @Unique
+  private volatile ConfigView tfcrealworld$config;
+
+  @Unique
+  private volatile RegionTaskPlan tfcrealworld$taskPlan;
+
   private static final Unsafe UNSAFE;
 
   static {
@@ -58,6 +81,31 @@ public class RegionGeneratorMixin {
     }
   }
 
+  @Override
+  public ConfigView tfcrealworld$getConfig() {
+    return tfcrealworld$config;
+  }
+
+  @Override
+  public PNGAltitudeNoise tfcrealworld$getAltitudeNoise() {
+    return tfcrealworld$altitudeNoise;
+  }
+
+  @Override
+  public void tfcrealworld$setAltitudeNoise(PNGAltitudeNoise noise) {
+    this.tfcrealworld$altitudeNoise = noise;
+  }
+
+  @Override
+  public PNGHotspotsNoise tfcrealworld$getHotspotsNoise() {
+    return tfcrealworld$hotspotsNoise;
+  }
+
+  @Override
+  public void tfcrealworld$setHotspotsNoise(PNGHotspotsNoise noise) {
+    this.tfcrealworld$hotspotsNoise = noise;
+  }
+
   @Inject(method = "<init>", at = @At("TAIL"))
   private void tfcrealworld$replaceNoises(
     Settings settings,
@@ -66,50 +114,45 @@ public class RegionGeneratorMixin {
   ) {
     RegionGenerator instance = (RegionGenerator) (Object) this;
 
+    // Every stage of this generator uses the map modes the maps were loaded with
+    ConfigView config = TFCRealWorldConfig.view();
+    this.tfcrealworld$config = config;
+    this.tfcrealworld$taskPlan = RegionTaskPlan.of(config);
+
     try {
       int horizontalWorldScale = SettingsHelper.getHorizontalWorldScale(
         settings
       );
       int verticalWorldScale = SettingsHelper.getVerticalWorldScale(settings);
 
-      PNGContinentNoise continentNoise = null;
-      if (TFCRealWorldConfig.getContinentFromMap()) {
-        continentNoise = new PNGContinentNoise(
-          horizontalWorldScale,
-          verticalWorldScale
-        );
-        initializeContinentMap(instance, continentNoise);
+      MapLoadingPipeline.Maps maps = MapLoadingPipeline.load(
+        horizontalWorldScale,
+        verticalWorldScale,
+        config.continentFromMap(),
+        config.altitudeFromMap(),
+        config.hotspotsFromMap(),
+        config.koppenFromMap(),
+        config.euclideanDistances()
+      );
 
-        net.yazloysasha.tfcrealworld.world.region.GlobalOceanDistanceCache.initialize(
-          continentNoise
-        );
-        net.yazloysasha.tfcrealworld.world.region.GlobalWestCoastDistanceCache.initialize(
-          continentNoise
-        );
+      if (maps.continentNoise() != null) {
+        initializeContinentMap(instance, maps.continentNoise());
       }
 
-      if (TFCRealWorldConfig.getAltitudeFromMap()) {
-        PNGAltitudeNoise altitudeNoise = new PNGAltitudeNoise(
-          horizontalWorldScale,
-          verticalWorldScale
-        );
-        initializeAltitudeMap(instance, altitudeNoise);
+      if (maps.altitudeNoise() != null) {
+        initializeAltitudeMap(instance, maps.altitudeNoise());
       }
 
-      if (TFCRealWorldConfig.getHotspotsFromMap()) {
-        PNGHotspotsNoise hotspotsNoise = new PNGHotspotsNoise(
-          horizontalWorldScale,
-          verticalWorldScale
-        );
-        initializeHotspotsMap(instance, hotspotsNoise);
+      if (maps.hotspotsNoise() != null) {
+        initializeHotspotsMap(instance, maps.hotspotsNoise());
       }
 
-      if (TFCRealWorldConfig.getKoppenFromMap()) {
+      if (maps.koppenNoise() != null) {
         initializeKoppenBasedClimateMaps(
           instance,
           seed,
-          horizontalWorldScale,
-          verticalWorldScale
+          maps.koppenNoise(),
+          config
         );
       }
     } catch (NoSuchFieldException e) {
@@ -120,6 +163,42 @@ public class RegionGeneratorMixin {
     }
   }
 
+  /**
+   * Runs only the tasks of the plan. Not required, so that the stage mixins still
+   * cancel the overridden tasks if the task loop of TFC changes.
+   */
+  @Redirect(
+    method = "createRegion",
+    at = @At(
+      value = "FIELD",
+      target = "Lnet/dries007/tfc/world/region/RegionGenerator$Task;VALUES:[Lnet/dries007/tfc/world/region/RegionGenerator$Task;",
+      opcode = Opcodes.GETSTATIC
+    ),
+    require = 0
+  )
+  private RegionGenerator.Task[] tfcrealworld$plannedTasks() {
+    return tfcrealworld$taskPlan.tasks();
+  }
+
+  /**
+   * Runs the map replacement of a task instead of the TFC task, if the plan has one.
+   */
+  @Redirect(
+    method = "createRegion",
+    at = @At(
+      value = "FIELD",
+      target = "Lnet/dries007/tfc/world/region/RegionGenerator$Task;task:Lnet/dries007/tfc/world/region/RegionTask;",
+      opcode = Opcodes.GETFIELD
+    ),
+    require = 0
+  )
+  private RegionTask tfcrealworld$plannedTask(RegionGenerator.Task task) {
+    RegionTask replacement = tfcrealworld$taskPlan.replacement(task);
+    return replacement != null
+      ? replacement
+      : ((RegionGeneratorTaskAccessor) (Object) task).tfcrealworld$getTask();
+  }
+
   private void initializeContinentMap(
     RegionGenerator instance,
     PNGContinentNoise continentNoise
@@ -164,15 +243,18 @@ public class RegionGeneratorMixin {
   private void initializeKoppenBasedClimateMaps(
     RegionGenerator instance,
     net.dries007.tfc.world.Seed seed,
-    int horizontalWorldScale,
-    int verticalWorldScale
+    PNGKoppenNoise koppenNoise,
+    ConfigView config
   ) throws NoSuchFieldException {
-    PNGKoppenNoise koppenNoise = new PNGKoppenNoise(
-      horizontalWorldScale,
-      verticalWorldScale
+    long climateSeed = seed.next();
+    KoppenClimateSampler sampler = new KoppenClimateSampler(
+      koppenNoise,
+      climateSeed,
+      config.climateCacheSize(),
+      config.bakeClimate()
+        ? BakedClimateRaster.loadOrBake(koppenNoise, climateSeed)
+        : null
     );
-
-    long koppenSeed = seed.next();
     Field tempField =
       RegionGenerator.class.getDeclaredField("temperatureNoise");
     @SuppressWarnings("deprecation")
@@ -180,7 +262,7 @@ public class RegionGeneratorMixin {
     UNSAFE.putObject(
       instance,
       tempOffset,
-      new KoppenBasedTemperatureNoise(koppenNoise, koppenSeed)
+      new KoppenBasedTemperatureNoise(sampler)
     );
 
     Field rainfallField =
@@ -190,7 +272,7 @@ public class RegionGeneratorMixin {
     UNSAFE.putObject(
       instance,
       rainfallOffset,
-      new KoppenBasedRainfallNoise(koppenNoise, koppenSeed)
+      new KoppenBasedRainfallNoise(sampler)
     );
 
     Field rainfallVarianceField =
@@ -200,7 +282,7 @@ public class RegionGeneratorMixin {
     UNSAFE.putObject(
       instance,
       rainVarOffset,
-      new KoppenBasedRainfallVarianceNoise(koppenNoise, koppenSeed)
+      new KoppenBasedRainfallVarianceNoise(sampler)
     );
   }
 }
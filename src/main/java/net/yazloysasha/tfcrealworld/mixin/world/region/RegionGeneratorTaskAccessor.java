@@ -0,0 +1,12 @@
+package net.yazloysasha.tfcrealworld.mixin.world.region;
+
+import net.dries007.tfc.world.region.RegionGenerator;
+import net.dries007.tfc.world.region.RegionTask;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.gen.Accessor;
+
+@Mixin(RegionGenerator.Task.class)
+public interface RegionGeneratorTaskAccessor {
+  @Accessor("task")
+  RegionTask tfcrealworld$getTask();
+}
@@ -0,0 +1,42 @@
+package net.yazloysasha.tfcrealworld.mixin.world.region;
+
+import net.dries007.tfc.world.region.Region;
+import net.yazloysasha.tfcrealworld.util.RegionExtension;
+import net.yazloysasha.tfcrealworld.world.region.RegionMapAnnotator;
+import org.jetbrains.annotations.Nullable;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Unique;
+
+@Mixin(Region.class)
+public class RegionMixin implements RegionExtension {
+
+  @Unique
+  @Nullable
+  private RegionMapAnnotator.MapAnnotations tfcrealworld$mapAnnotations;
+
+  @Unique
+  private int tfcrealworld$pointCount = -1;
+
+  @Override
+  @Nullable
+  public RegionMapAnnotator.MapAnnotations tfcrealworld$getMapAnnotations() {
+    return tfcrealworld$mapAnnotations;
+  }
+
+  @Override
+  public void tfcrealworld$setMapAnnotations(
+    @Nullable RegionMapAnnotator.MapAnnotations annotations
+  ) {
+    this.tfcrealworld$mapAnnotations = annotations;
+  }
+
+  @Override
+  public int tfcrealworld$getPointCount() {
+    return tfcrealworld$pointCount;
+  }
+
+  @Override
+  public void tfcrealworld$setPointCount(int count) {
+    this.tfcrealworld$pointCount = count;
+  }
+}
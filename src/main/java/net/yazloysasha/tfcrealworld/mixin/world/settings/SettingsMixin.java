@@ -19,7 +19,7 @@ public class SettingsMixin {
   private void tfcrealworld$overrideFlatBedrock(
     CallbackInfoReturnable<Boolean> cir
   ) {
-    cir.setReturnValue(TFCRealWorldConfig.getFlatBedrock());
+    cir.setReturnValue(TFCRealWorldConfig.view().flatBedrock());
   }
 
   @Inject(
@@ -31,7 +31,7 @@ public class SettingsMixin {
   private void tfcrealworld$overrideSpawnDistance(
     CallbackInfoReturnable<Integer> cir
   ) {
-    cir.setReturnValue(TFCRealWorldConfig.getSpawnDistance());
+    cir.setReturnValue(TFCRealWorldConfig.view().spawnDistance());
   }
 
   @Inject(
@@ -43,7 +43,7 @@ public class SettingsMixin {
   private void tfcrealworld$overrideSpawnCenterX(
     CallbackInfoReturnable<Integer> cir
   ) {
-    cir.setReturnValue(TFCRealWorldConfig.getSpawnCenterX());
+    cir.setReturnValue(TFCRealWorldConfig.view().spawnCenterX());
   }
 
   @Inject(
@@ -55,7 +55,7 @@ public class SettingsMixin {
   private void tfcrealworld$overrideSpawnCenterZ(
     CallbackInfoReturnable<Integer> cir
   ) {
-    cir.setReturnValue(TFCRealWorldConfig.getSpawnCenterZ());
+    cir.setReturnValue(TFCRealWorldConfig.view().spawnCenterZ());
   }
 
   @Inject(
@@ -67,7 +67,7 @@ public class SettingsMixin {
   private void tfcrealworld$overrideTemperatureScale(
     CallbackInfoReturnable<Integer> cir
   ) {
-    cir.setReturnValue(TFCRealWorldConfig.getTemperatureScale());
+    cir.setReturnValue(TFCRealWorldConfig.view().temperatureScale());
   }
 
   @Inject(
@@ -79,7 +79,7 @@ public class SettingsMixin {
   private void tfcrealworld$overrideRainfallScale(
     CallbackInfoReturnable<Integer> cir
   ) {
-    cir.setReturnValue(TFCRealWorldConfig.getRainfallScale());
+    cir.setReturnValue(TFCRealWorldConfig.view().rainfallScale());
   }
 
   @Inject(
@@ -91,7 +91,7 @@ public class SettingsMixin {
   private void tfcrealworld$overrideContinentalness(
     CallbackInfoReturnable<Float> cir
   ) {
-    cir.setReturnValue((float) TFCRealWorldConfig.getContinentalness());
+    cir.setReturnValue((float) TFCRealWorldConfig.view().continentalness());
   }
 
   @Inject(
@@ -103,7 +103,7 @@ public class SettingsMixin {
   private void tfcrealworld$overrideGrassDensity(
     CallbackInfoReturnable<Float> cir
   ) {
-    cir.setReturnValue((float) TFCRealWorldConfig.getGrassDensity());
+    cir.setReturnValue((float) TFCRealWorldConfig.view().grassDensity());
   }
 
   @Inject(
@@ -115,6 +115,6 @@ public class SettingsMixin {
   private void tfcrealworld$overrideFiniteContinents(
     CallbackInfoReturnable<Boolean> cir
   ) {
-    cir.setReturnValue(TFCRealWorldConfig.getFiniteContinents());
+    cir.setReturnValue(TFCRealWorldConfig.view().finiteContinents());
   }
 }
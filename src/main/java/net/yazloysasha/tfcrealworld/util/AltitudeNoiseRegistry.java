@@ -1,30 +1,29 @@
 package net.yazloysasha.tfcrealworld.util;
 
-import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
-import java.util.Map;
 import net.dries007.tfc.world.region.RegionGenerator;
 import net.yazloysasha.tfcrealworld.world.noise.PNGAltitudeNoise;
+import org.jetbrains.annotations.Nullable;
 
 /**
- * Registry for storing PNGAltitudeNoise instances for each RegionGenerator.
+ * Access to the PNGAltitudeNoise of each RegionGenerator.
+ * The noise is stored in a field added to RegionGenerator, so lookups do not lock
+ * and the noise is released together with the generator when the world unloads.
  */
 public class AltitudeNoiseRegistry {
 
-  private static final Map<RegionGenerator, PNGAltitudeNoise> REGISTRY =
-    new Object2ObjectOpenHashMap<>();
-
   public static void register(
     RegionGenerator generator,
     PNGAltitudeNoise noise
   ) {
-    REGISTRY.put(generator, noise);
+    ((RegionGeneratorExtension) generator).tfcrealworld$setAltitudeNoise(
+      noise
+    );
   }
 
+  @Nullable
   public static PNGAltitudeNoise get(RegionGenerator generator) {
-    return REGISTRY.get(generator);
-  }
-
-  public static void unregister(RegionGenerator generator) {
-    REGISTRY.remove(generator);
+    return (
+      (RegionGeneratorExtension) generator
+    ).tfcrealworld$getAltitudeNoise();
   }
 }
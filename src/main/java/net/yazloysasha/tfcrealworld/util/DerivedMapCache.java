@@ -0,0 +1,285 @@
+package net.yazloysasha.tfcrealworld.util;
+
+import com.mojang.logging.LogUtils;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+
+/**
+ * On-disk cache for byte planes derived from a map, such as the distance maps.
+ *
+ * Each plane is stored next to its source map as {@code <map>.<plane>.bin}. The header holds
+ * the SHA-256 of the source PNG and the parameters the plane was derived with, so the file is
+ * ignored and rewritten as soon as the map or any of those parameters change.
+ */
+public class DerivedMapCache {
+
+  private static final Logger LOGGER = LogUtils.getLogger();
+
+  private static final int MAGIC = 0x54525744; // "TRWD"
+  private static final int FORMAT_VERSION = 2;
+  private static final int HASH_LENGTH = 32;
+
+  private static final Map<Path, MapFingerprint> FINGERPRINTS =
+    new ConcurrentHashMap<>();
+
+  /**
+   * Fills {@code target} from the cached plane. Returns false if there is no cache file
+   * or it was written for a different map, different parameters or a different size.
+   */
+  public static boolean load(
+    String mapName,
+    String planeName,
+    int[] parameters,
+    byte[] target
+  ) {
+    byte[] hash = getMapHash(mapName);
+    if (hash == null) {
+      return false;
+    }
+
+    Path path = getPlanePath(mapName, planeName);
+    if (!Files.isRegularFile(path)) {
+      return false;
+    }
+
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      int headerSize = headerSize(parameters);
+      long expectedSize = headerSize + (long) target.length;
+      if (channel.size() != expectedSize) {
+        LOGGER.info("Ignoring stale {} cache: unexpected size", path);
+        return false;
+      }
+
+      // Read rather than map, so that no mapping keeps the file open when
+      // a stale cache is replaced right after
+      ByteBuffer header = ByteBuffer.allocate(headerSize);
+      if (!readFully(channel, header, 0)) {
+        return false;
+      }
+      header.flip();
+      if (!readHeader(header, hash, parameters, target.length)) {
+        LOGGER.info("Ignoring stale {} cache: map or parameters changed", path);
+        return false;
+      }
+      return readFully(channel, ByteBuffer.wrap(target), headerSize);
+    } catch (IOException e) {
+      LOGGER.warn("Failed to read {} cache from: {}", planeName, path, e);
+      return false;
+    }
+  }
+
+  /**
+   * Writes the plane to disk. The file is written next to the target and moved into place,
+   * so a crash never leaves a half-written cache behind. Failures are logged and ignored,
+   * the plane will simply be derived again on the next load.
+   */
+  public static void save(
+    String mapName,
+    String planeName,
+    int[] parameters,
+    byte[] data
+  ) {
+    byte[] hash = getMapHash(mapName);
+    if (hash == null) {
+      return;
+    }
+
+    Path path = getPlanePath(mapName, planeName);
+    Path tempPath = getTempPath(path);
+    try {
+      try (
+        FileChannel channel = FileChannel.open(
+          tempPath,
+          StandardOpenOption.CREATE,
+          StandardOpenOption.TRUNCATE_EXISTING,
+          StandardOpenOption.WRITE
+        )
+      ) {
+        writeHeader(channel, hash, parameters, data.length);
+        ByteBuffer body = ByteBuffer.wrap(data);
+        while (body.hasRemaining()) {
+          channel.write(body);
+        }
+      }
+      moveIntoPlace(tempPath, path);
+      LOGGER.debug("Saved {} cache to: {}", planeName, path);
+    } catch (IOException e) {
+      LOGGER.warn("Failed to write {} cache to: {}", planeName, path, e);
+      deleteQuietly(tempPath);
+    }
+  }
+
+  public static Path getPlanePath(String mapName, String planeName) {
+    return MapPathHelper.getMapsDirectory().resolve(
+      mapName + "." + planeName + ".bin"
+    );
+  }
+
+  /**
+   * Returns the SHA-256 of the map file, or null if the map can not be read.
+   * The hash is remembered until the size or modification time of the file changes.
+   */
+  @Nullable
+  public static byte[] getMapHash(String mapName) {
+    Path mapPath = MapPathHelper.getMapPath(mapName);
+    try {
+      long size = Files.size(mapPath);
+      long lastModified = Files.getLastModifiedTime(mapPath).toMillis();
+
+      MapFingerprint cached = FINGERPRINTS.get(mapPath);
+      if (
+        cached != null &&
+        cached.size == size &&
+        cached.lastModified == lastModified
+      ) {
+        return cached.hash;
+      }
+
+      byte[] hash = hashFile(mapPath);
+      FINGERPRINTS.put(mapPath, new MapFingerprint(size, lastModified, hash));
+      return hash;
+    } catch (IOException e) {
+      LOGGER.warn("Failed to hash {} map at: {}", mapName, mapPath, e);
+      return null;
+    }
+  }
+
+  private static byte[] hashFile(Path path) throws IOException {
+    MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not available", e);
+    }
+
+    byte[] buffer = new byte[1 << 16];
+    try (InputStream input = Files.newInputStream(path)) {
+      int read;
+      while ((read = input.read(buffer)) != -1) {
+        digest.update(buffer, 0, read);
+      }
+    }
+    return digest.digest();
+  }
+
+  /**
+   * Size in bytes of a header written for the given parameters.
+   */
+  public static int headerSize(int[] parameters) {
+    // magic, version, hash, parameter count, parameters, body length
+    return 4 + 4 + HASH_LENGTH + 4 + parameters.length * 4 + 8;
+  }
+
+  public static void writeHeader(
+    FileChannel channel,
+    byte[] hash,
+    int[] parameters,
+    long length
+  ) throws IOException {
+    ByteBuffer header = ByteBuffer.allocate(headerSize(parameters));
+    header.putInt(MAGIC);
+    header.putInt(FORMAT_VERSION);
+    header.put(hash);
+    header.putInt(parameters.length);
+    for (int parameter : parameters) {
+      header.putInt(parameter);
+    }
+    header.putLong(length);
+    header.flip();
+    while (header.hasRemaining()) {
+      channel.write(header);
+    }
+  }
+
+  /**
+   * Reads a header and returns whether it matches the given map hash, parameters and body length.
+   */
+  public static boolean readHeader(
+    ByteBuffer buffer,
+    byte[] hash,
+    int[] parameters,
+    long length
+  ) {
+    if (buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION) {
+      return false;
+    }
+
+    byte[] storedHash = new byte[HASH_LENGTH];
+    buffer.get(storedHash);
+    if (!Arrays.equals(storedHash, hash)) {
+      return false;
+    }
+
+    if (buffer.getInt() != parameters.length) {
+      return false;
+    }
+    for (int parameter : parameters) {
+      if (buffer.getInt() != parameter) {
+        return false;
+      }
+    }
+    return buffer.getLong() == length;
+  }
+
+  /**
+   * Reads from {@code position} until {@code buffer} is full. Returns false if the file ends first.
+   */
+  public static boolean readFully(
+    FileChannel channel,
+    ByteBuffer buffer,
+    long position
+  ) throws IOException {
+    long offset = position;
+    while (buffer.hasRemaining()) {
+      int read = channel.read(buffer, offset);
+      if (read < 0) {
+        return false;
+      }
+      offset += read;
+    }
+    return true;
+  }
+
+  public static Path getTempPath(Path path) {
+    return path.resolveSibling(path.getFileName() + ".tmp");
+  }
+
+  /**
+   * Replaces {@code path} with the fully written {@code tempPath}, atomically where supported.
+   */
+  public static void moveIntoPlace(Path tempPath, Path path)
+    throws IOException {
+    try {
+      Files.move(
+        tempPath,
+        path,
+        StandardCopyOption.REPLACE_EXISTING,
+        StandardCopyOption.ATOMIC_MOVE
+      );
+    } catch (AtomicMoveNotSupportedException e) {
+      Files.move(tempPath, path, StandardCopyOption.REPLACE_EXISTING);
+    }
+  }
+
+  public static void deleteQuietly(Path path) {
+    try {
+      Files.deleteIfExists(path);
+    } catch (IOException ignored) {}
+  }
+
+  private record MapFingerprint(long size, long lastModified, byte[] hash) {}
+}
@@ -0,0 +1,94 @@
+package net.yazloysasha.tfcrealworld.util;
+
+import net.dries007.tfc.util.Helpers;
+import net.minecraft.util.Mth;
+import net.yazloysasha.tfcrealworld.config.ConfigView;
+import net.yazloysasha.tfcrealworld.config.TFCRealWorldConfig;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Latitude and hemisphere of a block Z coordinate, for the pole offset, world scale and pole
+ * looping in effect.
+ *
+ * Sun, daylight and temperature queries ask for the latitude of a position many times per tick,
+ * so the config is read once into an immutable model and every query is a few float operations.
+ * The model remembers the {@link ConfigView} it was built from and is rebuilt on the first
+ * query after a new view is published.
+ */
+public final class LatitudeModel {
+
+  @Nullable
+  private static volatile LatitudeModel current = null;
+
+  private final ConfigView view;
+  private final int poleOffset;
+  private final float hemisphereScale;
+  private final float triangleOffset;
+  private final boolean clampToPoles;
+  private final float frequency;
+  private final boolean poleLooping;
+  private final int hemisphereOffset;
+  private final int poleToPoleDistance;
+
+  private LatitudeModel(ConfigView view) {
+    this.view = view;
+    this.poleOffset = view.poleOffset();
+    this.hemisphereScale = (float) view.verticalWorldScale() * 0.5f;
+    this.triangleOffset = 0.5f * hemisphereScale;
+    this.poleLooping = view.poleLooping();
+    this.clampToPoles = !poleLooping && hemisphereScale > 0;
+    this.frequency = 1 / (4 * hemisphereScale);
+    this.hemisphereOffset = (int) (hemisphereScale / 2);
+    this.poleToPoleDistance = (int) (hemisphereScale * 2);
+  }
+
+  public static LatitudeModel get() {
+    // A model built from an older view is replaced, even if it was stored after the refresh
+    ConfigView config = TFCRealWorldConfig.view();
+    LatitudeModel model = current;
+    if (model == null || model.view != config) {
+      model = new LatitudeModel(config);
+      current = model;
+    }
+    return model;
+  }
+
+  public int transformZ(int z) {
+    return z + poleOffset;
+  }
+
+  /**
+   * Latitude in radians, from -pi/2 at the poles to 0 at the equator.
+   */
+  public float latitude(int z) {
+    float triangleInput = transformZ(z) - triangleOffset;
+    if (clampToPoles) {
+      triangleInput = Mth.clamp(
+        triangleInput,
+        -hemisphereScale,
+        hemisphereScale
+      );
+    }
+    return Helpers.triangle(-Mth.HALF_PI, 0, frequency, triangleInput);
+  }
+
+  /**
+   * Whether the hemispheres repeat along Z, in which case TFC decides the hemisphere.
+   */
+  public boolean isPoleLooping() {
+    return poleLooping;
+  }
+
+  /**
+   * Hemisphere of a Z coordinate, for worlds without pole looping.
+   */
+  public boolean isInNorthernHemisphere(int z) {
+    int adjustedZ = z - hemisphereOffset;
+    if (adjustedZ < -poleToPoleDistance) {
+      return false;
+    } else if (adjustedZ > poleToPoleDistance) {
+      return true;
+    }
+    return adjustedZ > 0;
+  }
+}
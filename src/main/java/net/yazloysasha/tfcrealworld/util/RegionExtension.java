@@ -0,0 +1,26 @@
+package net.yazloysasha.tfcrealworld.util;
+
+import net.yazloysasha.tfcrealworld.world.region.RegionMapAnnotator;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Implemented by Region through RegionMixin.
+ * Holds the map values computed for the region, so every map stage of the
+ * region pipeline can read them after the first one computed them, and the
+ * number of points of the region once WorldgenMetrics counted them.
+ */
+public interface RegionExtension {
+  @Nullable
+  RegionMapAnnotator.MapAnnotations tfcrealworld$getMapAnnotations();
+
+  void tfcrealworld$setMapAnnotations(
+    @Nullable RegionMapAnnotator.MapAnnotations annotations
+  );
+
+  /**
+   * Returns -1 until the points were counted.
+   */
+  int tfcrealworld$getPointCount();
+
+  void tfcrealworld$setPointCount(int count);
+}
@@ -0,0 +1,16 @@
+package net.yazloysasha.tfcrealworld.util;
+
+import net.dries007.tfc.world.region.RegionGenerator;
+import net.yazloysasha.tfcrealworld.config.ConfigView;
+
+/**
+ * Access to the config each RegionGenerator was created with.
+ * Region stages read the map modes from here instead of the live config, so they always
+ * match the maps the generator loaded, even if the config changes while the world is open.
+ */
+public class RegionGeneratorConfig {
+
+  public static ConfigView get(RegionGenerator generator) {
+    return ((RegionGeneratorExtension) generator).tfcrealworld$getConfig();
+  }
+}
@@ -0,0 +1,26 @@
+package net.yazloysasha.tfcrealworld.util;
+
+import net.yazloysasha.tfcrealworld.config.ConfigView;
+import net.yazloysasha.tfcrealworld.world.noise.PNGAltitudeNoise;
+import net.yazloysasha.tfcrealworld.world.noise.PNGHotspotsNoise;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Implemented by RegionGenerator through RegionGeneratorMixin.
+ * Holds the PNG noises which have no matching field in RegionGenerator,
+ * so they live and die together with the generator, and the config the
+ * generator was created with.
+ */
+public interface RegionGeneratorExtension {
+  ConfigView tfcrealworld$getConfig();
+
+  @Nullable
+  PNGAltitudeNoise tfcrealworld$getAltitudeNoise();
+
+  void tfcrealworld$setAltitudeNoise(@Nullable PNGAltitudeNoise noise);
+
+  @Nullable
+  PNGHotspotsNoise tfcrealworld$getHotspotsNoise();
+
+  void tfcrealworld$setHotspotsNoise(@Nullable PNGHotspotsNoise noise);
+}
@@ -0,0 +1,275 @@
+package net.yazloysasha.tfcrealworld.util;
+
+import com.mojang.logging.LogUtils;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import net.dries007.tfc.world.region.Region;
+import org.slf4j.Logger;
+
+/**
+ * Timing and counters for the region stages overridden by the mod and for one-time costs
+ * such as map loading.
+ *
+ * Recording only adds to striped counters, so it is cheap enough to stay on during pregen.
+ * Durations are also counted in power of two buckets, which is enough to estimate percentiles.
+ */
+public final class WorldgenMetrics {
+
+  private static final Logger LOGGER = LogUtils.getLogger();
+
+  private static final int BUCKETS = 64;
+
+  public enum Stage {
+    MAP_ANNOTATIONS("map_annotations", true),
+    ADD_HOTSPOTS("add_hotspots", true),
+    DISTANCE_TO_OCEAN("distance_to_ocean", true),
+    BASE_LAND_HEIGHT("base_land_height", true),
+    DISTANCE_TO_WEST_COAST("distance_to_west_coast", true),
+    BIOME_ALTITUDE("biome_altitude", true),
+    CLIMATE("climate", true),
+    MAP_LOAD("map_load", false),
+    OCEAN_DISTANCE_BUILD("ocean_distance_build", false),
+    WEST_COAST_DISTANCE_BUILD("west_coast_distance_build", false),
+    PARAMETER_CACHE_BUILD("parameter_cache_build", false),
+    CLIMATE_BAKE("climate_bake", false);
+
+    private final String name;
+    private final boolean perRegion;
+    private final LongAdder count = new LongAdder();
+    private final LongAdder nanos = new LongAdder();
+    private final LongAdder points = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(
+      Math::max,
+      0
+    );
+    private final LongAdder[] histogram = new LongAdder[BUCKETS];
+
+    Stage(String name, boolean perRegion) {
+      this.name = name;
+      this.perRegion = perRegion;
+      for (int i = 0; i < BUCKETS; i++) {
+        histogram[i] = new LongAdder();
+      }
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public boolean isPerRegion() {
+      return perRegion;
+    }
+
+    private void reset() {
+      count.reset();
+      nanos.reset();
+      points.reset();
+      maxNanos.reset();
+      for (LongAdder bucket : histogram) {
+        bucket.reset();
+      }
+    }
+
+    /**
+     * Exclusive upper bound of the bucket holding the given fraction of the recorded durations.
+     */
+    private long percentile(double fraction) {
+      long total = 0;
+      long[] counts = new long[BUCKETS];
+      for (int i = 0; i < BUCKETS; i++) {
+        counts[i] = histogram[i].sum();
+        total += counts[i];
+      }
+      long target = (long) Math.ceil(total * fraction);
+      long seen = 0;
+      for (int i = 0; i < BUCKETS; i++) {
+        seen += counts[i];
+        if (seen >= target && counts[i] > 0) {
+          return i >= 63 ? Long.MAX_VALUE : 1L << i;
+        }
+      }
+      return 0;
+    }
+  }
+
+  public enum Cache {
+    CLIMATE_SAMPLES("climate_samples");
+
+    private final String name;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    Cache(String name) {
+      this.name = name;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    private void reset() {
+      hits.reset();
+      misses.reset();
+    }
+  }
+
+  // Start times of the stages which begin and end in different injections, per thread
+  private static final ThreadLocal<long[]> STARTS = ThreadLocal.withInitial(
+    () -> new long[Stage.values().length]
+  );
+
+  private static volatile long resetTime = System.nanoTime();
+
+  private WorldgenMetrics() {}
+
+  public static long start() {
+    return System.nanoTime();
+  }
+
+  /**
+   * Records a region stage which started at {@code start}. Points are counted after the clock
+   * stops, once per region.
+   */
+  public static void record(Stage stage, long start, Region region) {
+    long elapsed = System.nanoTime() - start;
+    add(stage, elapsed, countPoints(region));
+  }
+
+  public static void record(Stage stage, long start) {
+    add(stage, System.nanoTime() - start, 0);
+  }
+
+  /**
+   * Remembers the start of a stage on the current thread, for stages timed by a pair of injections.
+   */
+  public static void begin(Stage stage) {
+    STARTS.get()[stage.ordinal()] = System.nanoTime();
+  }
+
+  public static void end(Stage stage, Region region) {
+    record(stage, STARTS.get()[stage.ordinal()], region);
+  }
+
+  private static void add(Stage stage, long elapsed, int points) {
+    elapsed = Math.max(elapsed, 0);
+    stage.count.increment();
+    stage.nanos.add(elapsed);
+    stage.points.add(points);
+    stage.maxNanos.accumulate(elapsed);
+    // Bucket i holds durations below 2^i nanoseconds
+    stage.histogram[BUCKETS - Long.numberOfLeadingZeros(elapsed)].increment();
+  }
+
+  public static void hit(Cache cache) {
+    cache.hits.increment();
+  }
+
+  public static void miss(Cache cache) {
+    cache.misses.increment();
+  }
+
+  private static int countPoints(Region region) {
+    RegionExtension extension = (RegionExtension) region;
+    int count = extension.tfcrealworld$getPointCount();
+    if (count >= 0) {
+      return count;
+    }
+
+    count = 0;
+    for (final var point : region.points()) {
+      if (point != null) {
+        count++;
+      }
+    }
+    extension.tfcrealworld$setPointCount(count);
+    return count;
+  }
+
+  public static void reset() {
+    for (Stage stage : Stage.values()) {
+      stage.reset();
+    }
+    for (Cache cache : Cache.values()) {
+      cache.reset();
+    }
+    resetTime = System.nanoTime();
+  }
+
+  /**
+   * One line per stage with recorded data. Region stages report the mean, p50 and p99 time per
+   * region, and the points annotated per second of wall time since the last reset.
+   * Caches report their hit rate.
+   */
+  public static List<String> report() {
+    double elapsedSeconds = Math.max(
+      (System.nanoTime() - resetTime) / 1e9,
+      1e-9
+    );
+    List<String> lines = new ArrayList<>();
+    for (Stage stage : Stage.values()) {
+      long count = stage.count.sum();
+      if (count == 0) {
+        continue;
+      }
+
+      long nanos = stage.nanos.sum();
+      if (stage.perRegion) {
+        lines.add(
+          String.format(
+            Locale.ROOT,
+            "%s: %d regions, %d ns/region (p50 < %d, p99 < %d, max %d), %.0f points/s",
+            stage.name,
+            count,
+            nanos / count,
+            stage.percentile(0.5),
+            stage.percentile(0.99),
+            stage.maxNanos.get(),
+            stage.points.sum() / elapsedSeconds
+          )
+        );
+      } else {
+        lines.add(
+          String.format(
+            Locale.ROOT,
+            "%s: %d runs, %.1f ms total, %.1f ms max",
+            stage.name,
+            count,
+            nanos / 1e6,
+            stage.maxNanos.get() / 1e6
+          )
+        );
+      }
+    }
+    for (Cache cache : Cache.values()) {
+      long hits = cache.hits.sum();
+      long lookups = hits + cache.misses.sum();
+      if (lookups > 0) {
+        lines.add(
+          String.format(
+            Locale.ROOT,
+            "%s cache: %.1f%% hit rate (%d of %d lookups)",
+            cache.name,
+            hits * 100.0 / lookups,
+            hits,
+            lookups
+          )
+        );
+      }
+    }
+    return lines;
+  }
+
+  public static void logReport() {
+    List<String> lines = report();
+    if (lines.isEmpty()) {
+      return;
+    }
+    LOGGER.info("World generation metrics:");
+    for (String line : lines) {
+      LOGGER.info("  {}", line);
+    }
+  }
+}
@@ -0,0 +1,24 @@
+package net.yazloysasha.tfcrealworld.world.noise;
+
+/**
+ * Map plane held in a row-major array.
+ */
+final class ArrayMapPlane extends MapPlane {
+
+  private final byte[] data;
+
+  ArrayMapPlane(byte[] data, int width, int height) {
+    super(width, height);
+    this.data = data;
+  }
+
+  @Override
+  public int get(int x, int z) {
+    return data[z * width + x] & 0xFF;
+  }
+
+  @Override
+  public int getAt(int index) {
+    return data[index] & 0xFF;
+  }
+}
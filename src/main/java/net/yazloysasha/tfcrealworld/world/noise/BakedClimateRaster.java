@@ -0,0 +1,361 @@
+package net.yazloysasha.tfcrealworld.world.noise;
+
+import com.mojang.logging.LogUtils;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.ShortBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.stream.IntStream;
+import net.yazloysasha.tfcrealworld.util.DerivedMapCache;
+import net.yazloysasha.tfcrealworld.util.WorldgenMetrics;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+
+/**
+ * Temperature, rainfall and rainfall variance of every grid cell inside the Köppen map,
+ * computed once per world seed.
+ *
+ * The climate of a grid point only depends on the map, the seed and the coordinates, so it is
+ * baked into quantised shorts when the world loads and saved next to the map as
+ * {@code koppen.baked_climate.<seed>.bin}. The file is named after the seed so that it never
+ * replaces a file another generator still has mapped, and the files of other seeds are deleted
+ * after baking, so only the last baked seed is kept. The file is memory-mapped in 1 GiB
+ * segments once its header matches, and a lookup is a single read. Grids too large to index
+ * are not baked at all. Points outside the map or between grid cells are left to the
+ * {@link KoppenClimateSampler}.
+ */
+public final class BakedClimateRaster {
+
+  private static final Logger LOGGER = LogUtils.getLogger();
+
+  private static final String MAP_NAME = "koppen";
+  private static final String PLANE_NAME = "baked_climate";
+  private static final int FORMAT_VERSION = 1;
+  private static final int VALUES_PER_CELL = 3;
+
+  // Values are indexed with an int and baked into a single array
+  private static final long MAX_VALUES = Integer.MAX_VALUE - 8;
+  private static final int SEGMENT_SHIFT = 29;
+  private static final int SEGMENT_MASK = (1 << SEGMENT_SHIFT) - 1;
+  private static final int WRITE_CHUNK_VALUES = 1 << 20;
+
+  static final double TEMPERATURE_SCALE = 100.0;
+  static final double RAINFALL_SCALE = 50.0;
+  static final double RAINFALL_VARIANCE_SCALE = 30000.0;
+
+  private final int minX;
+  private final int minZ;
+  private final int sizeX;
+  private final int sizeZ;
+  // Temperature, rainfall and rainfall variance of each cell, row by row
+  private final ShortBuffer[] segments;
+
+  private BakedClimateRaster(
+    int minX,
+    int minZ,
+    int sizeX,
+    int sizeZ,
+    ShortBuffer[] segments
+  ) {
+    this.minX = minX;
+    this.minZ = minZ;
+    this.sizeX = sizeX;
+    this.sizeZ = sizeZ;
+    this.segments = segments;
+  }
+
+  /**
+   * Maps the baked climate of the given seed, or bakes and saves it if it is missing or stale.
+   * Returns null if the grid is too large to bake, the climate is then sampled on demand.
+   */
+  @Nullable
+  public static BakedClimateRaster loadOrBake(
+    PNGKoppenNoise koppenNoise,
+    long seed
+  ) {
+    int radiusX = (int) Math.ceil(koppenNoise.getWorldRadiusGridX());
+    int radiusZ = (int) Math.ceil(koppenNoise.getWorldRadiusGridZ());
+    int minX = -radiusX;
+    int minZ = -radiusZ;
+    int sizeX = 2 * radiusX + 1;
+    int sizeZ = 2 * radiusZ + 1;
+    long valueCount = (long) sizeX * sizeZ * VALUES_PER_CELL;
+    if (valueCount > MAX_VALUES) {
+      LOGGER.warn(
+        "Not baking climate: {}x{} grid cells are too many, sampling on demand",
+        sizeX,
+        sizeZ
+      );
+      return null;
+    }
+    long length = valueCount * Short.BYTES;
+
+    int[] parameters = {
+      FORMAT_VERSION,
+      (int) (seed >>> 32),
+      (int) seed,
+      minX,
+      minZ,
+      sizeX,
+      sizeZ,
+      // The grid size is rounded up, so nearby world scales share it
+      koppenNoise.getWorldRadiusBlocksX(),
+      koppenNoise.getWorldRadiusBlocksZ(),
+      PNGKoppenNoise.getPaletteFingerprint(),
+      KoppenParameterCache.getInstance().getFingerprint(),
+    };
+
+    String planeName = PLANE_NAME + "." + Long.toHexString(seed);
+    ShortBuffer[] segments = map(planeName, parameters, length);
+    if (segments != null) {
+      LOGGER.info("Loaded baked climate: {}x{} grid cells", sizeX, sizeZ);
+      return new BakedClimateRaster(minX, minZ, sizeX, sizeZ, segments);
+    }
+
+    long start = WorldgenMetrics.start();
+    short[] baked = bake(
+      koppenNoise,
+      seed,
+      minX,
+      minZ,
+      sizeX,
+      sizeZ,
+      (int) valueCount
+    );
+    WorldgenMetrics.record(WorldgenMetrics.Stage.CLIMATE_BAKE, start);
+    LOGGER.info(
+      "Baked climate: {}x{} grid cells in {} ms",
+      sizeX,
+      sizeZ,
+      (System.nanoTime() - start) / 1_000_000
+    );
+
+    if (save(planeName, parameters, baked)) {
+      deleteOtherSeeds(planeName);
+    }
+    segments = map(planeName, parameters, length);
+    if (segments == null) {
+      // Could not be saved, keep the baked values on the heap
+      segments = wrap(baked);
+    }
+    return new BakedClimateRaster(minX, minZ, sizeX, sizeZ, segments);
+  }
+
+  /**
+   * Index of the cell at the grid point, or -1 if it is outside the map.
+   */
+  public int indexOf(int x, int z) {
+    int column = x - minX;
+    int row = z - minZ;
+    if (column < 0 || column >= sizeX || row < 0 || row >= sizeZ) {
+      return -1;
+    }
+    return (row * sizeX + column) * VALUES_PER_CELL;
+  }
+
+  public double temperature(int index) {
+    return value(index) / TEMPERATURE_SCALE;
+  }
+
+  public double rainfall(int index) {
+    return value(index + 1) / RAINFALL_SCALE;
+  }
+
+  public double rainfallVariance(int index) {
+    return value(index + 2) / RAINFALL_VARIANCE_SCALE;
+  }
+
+  private short value(int index) {
+    return segments[index >>> SEGMENT_SHIFT].get(index & SEGMENT_MASK);
+  }
+
+  private static int segmentCount(long valueCount) {
+    return (int) ((valueCount + SEGMENT_MASK) >>> SEGMENT_SHIFT);
+  }
+
+  private static ShortBuffer[] wrap(short[] baked) {
+    ShortBuffer[] segments = new ShortBuffer[segmentCount(baked.length)];
+    for (int i = 0; i < segments.length; i++) {
+      int offset = i << SEGMENT_SHIFT;
+      int count = Math.min(SEGMENT_MASK + 1, baked.length - offset);
+      segments[i] = ShortBuffer.wrap(baked, offset, count).slice();
+    }
+    return segments;
+  }
+
+  private static short[] bake(
+    PNGKoppenNoise koppenNoise,
+    long seed,
+    int minX,
+    int minZ,
+    int sizeX,
+    int sizeZ,
+    int valueCount
+  ) {
+    // Uncached, the shared cache would only be filled with points baked here
+    KoppenClimateSampler sampler = new KoppenClimateSampler(
+      koppenNoise,
+      seed,
+      0
+    );
+    short[] baked = new short[valueCount];
+    IntStream.range(0, sizeZ)
+      .parallel()
+      .forEach(row -> {
+        int z = minZ + row;
+        int offset = row * sizeX * VALUES_PER_CELL;
+        for (int column = 0; column < sizeX; column++) {
+          int x = minX + column;
+          int index = offset + column * VALUES_PER_CELL;
+          baked[index] = quantise(
+            sampler.temperature(x, z),
+            TEMPERATURE_SCALE
+          );
+          baked[index + 1] = quantise(sampler.rainfall(x, z), RAINFALL_SCALE);
+          baked[index + 2] = quantise(
+            sampler.rainfallVariance(x, z),
+            RAINFALL_VARIANCE_SCALE
+          );
+        }
+      });
+    return baked;
+  }
+
+  static short quantise(double value, double scale) {
+    return (short) Math.clamp(
+      Math.round(value * scale),
+      Short.MIN_VALUE,
+      Short.MAX_VALUE
+    );
+  }
+
+  @Nullable
+  private static ShortBuffer[] map(
+    String planeName,
+    int[] parameters,
+    long length
+  ) {
+    byte[] hash = DerivedMapCache.getMapHash(MAP_NAME);
+    Path path = DerivedMapCache.getPlanePath(MAP_NAME, planeName);
+    if (hash == null || !Files.isRegularFile(path)) {
+      return null;
+    }
+
+    int headerSize = DerivedMapCache.headerSize(parameters);
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      if (channel.size() != headerSize + length) {
+        LOGGER.info("Ignoring stale baked climate: unexpected size");
+        return null;
+      }
+
+      // Only a matching file is mapped, so a stale one can be replaced
+      ByteBuffer header = ByteBuffer.allocate(headerSize);
+      if (!DerivedMapCache.readFully(channel, header, 0)) {
+        return null;
+      }
+      header.flip();
+      if (!DerivedMapCache.readHeader(header, hash, parameters, length)) {
+        LOGGER.info(
+          "Ignoring stale baked climate: map, seed, scale or tables changed"
+        );
+        return null;
+      }
+
+      // A single mapping is limited to 2 GiB, and the mappings stay valid after the
+      // channel is closed
+      long valueCount = length / Short.BYTES;
+      ShortBuffer[] segments = new ShortBuffer[segmentCount(valueCount)];
+      for (int i = 0; i < segments.length; i++) {
+        long offset = (long) i << SEGMENT_SHIFT;
+        long count = Math.min(SEGMENT_MASK + 1L, valueCount - offset);
+        MappedByteBuffer buffer = channel.map(
+          FileChannel.MapMode.READ_ONLY,
+          headerSize + offset * Short.BYTES,
+          count * Short.BYTES
+        );
+        segments[i] = buffer.asShortBuffer();
+      }
+      return segments;
+    } catch (IOException e) {
+      LOGGER.warn("Failed to read baked climate from: {}", path, e);
+      return null;
+    }
+  }
+
+  /**
+   * Writes the baked values to disk. Returns false if they could not be written.
+   */
+  private static boolean save(
+    String planeName,
+    int[] parameters,
+    short[] baked
+  ) {
+    byte[] hash = DerivedMapCache.getMapHash(MAP_NAME);
+    if (hash == null) {
+      return false;
+    }
+
+    Path path = DerivedMapCache.getPlanePath(MAP_NAME, planeName);
+    Path tempPath = DerivedMapCache.getTempPath(path);
+    try {
+      try (
+        FileChannel channel = FileChannel.open(
+          tempPath,
+          StandardOpenOption.CREATE,
+          StandardOpenOption.TRUNCATE_EXISTING,
+          StandardOpenOption.WRITE
+        )
+      ) {
+        long length = (long) baked.length * Short.BYTES;
+        DerivedMapCache.writeHeader(channel, hash, parameters, length);
+        ByteBuffer body = ByteBuffer.allocate(
+          WRITE_CHUNK_VALUES * Short.BYTES
+        );
+        for (int offset = 0; offset < baked.length; ) {
+          int count = Math.min(WRITE_CHUNK_VALUES, baked.length - offset);
+          body.clear();
+          body.asShortBuffer().put(baked, offset, count);
+          body.limit(count * Short.BYTES);
+          while (body.hasRemaining()) {
+            channel.write(body);
+          }
+          offset += count;
+        }
+      }
+      DerivedMapCache.moveIntoPlace(tempPath, path);
+      return true;
+    } catch (IOException e) {
+      LOGGER.warn("Failed to write baked climate to: {}", path, e);
+      DerivedMapCache.deleteQuietly(tempPath);
+      return false;
+    }
+  }
+
+  /**
+   * Deletes the baked climate of every other seed. A file still mapped by another generator
+   * can not be deleted on some systems and is left for the next bake.
+   */
+  private static void deleteOtherSeeds(String planeName) {
+    Path keep = DerivedMapCache.getPlanePath(MAP_NAME, planeName);
+    String glob = MAP_NAME + "." + PLANE_NAME + ".*.bin";
+    try (
+      DirectoryStream<Path> files = Files.newDirectoryStream(
+        keep.getParent(),
+        glob
+      )
+    ) {
+      for (Path file : files) {
+        if (!file.equals(keep)) {
+          DerivedMapCache.deleteQuietly(file);
+        }
+      }
+    } catch (IOException e) {
+      LOGGER.warn("Failed to delete old baked climate files", e);
+    }
+  }
+}
@@ -1,25 +1,17 @@
 package net.yazloysasha.tfcrealworld.world.noise;
 
 import com.mojang.logging.LogUtils;
-import java.awt.image.BufferedImage;
-import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.util.HashMap;
-import java.util.Map;
-import javax.imageio.ImageIO;
 import net.dries007.tfc.world.noise.Noise2D;
 import net.dries007.tfc.world.region.Units;
-import net.yazloysasha.tfcrealworld.util.MapPathHelper;
 import org.slf4j.Logger;
 
 public abstract class BasePNGNoise implements Noise2D {
 
   protected static final Logger LOGGER = LogUtils.getLogger();
 
-  private static final Map<String, BufferedImage> imageCache = new HashMap<>();
-
-  protected final int[] pixels;
+  // Luminance of each pixel (0-255), computed once when the map is loaded
+  protected final MapPlane brightness;
+  protected final String mapName;
   protected final int width;
   protected final int height;
   protected final double centerX;
@@ -37,6 +29,7 @@ public abstract class BasePNGNoise implements Noise2D {
     String mapName,
     String errorMessage
   ) {
+    this.mapName = mapName;
     this.worldRadiusBlocksX = horizontalWorldScale / 2;
     this.worldRadiusBlocksZ = verticalWorldScale / 2;
     this.worldRadiusGridX =
@@ -44,16 +37,13 @@ public abstract class BasePNGNoise implements Noise2D {
     this.worldRadiusGridZ =
       worldRadiusBlocksZ / (double) Units.GRID_WIDTH_IN_BLOCK;
 
-    BufferedImage image = loadImage(mapName);
-    if (image == null) {
+    this.brightness = MapPlane.load(mapName, "brightness", MapPlane.BRIGHTNESS);
+    if (brightness == null) {
       throw new RuntimeException(errorMessage);
     }
 
-    this.width = image.getWidth();
-    this.height = image.getHeight();
-    this.pixels = new int[width * height];
-
-    image.getRGB(0, 0, width, height, pixels, 0, width);
+    this.width = brightness.getWidth();
+    this.height = brightness.getHeight();
 
     this.centerX = width / 2.0;
     this.centerZ = height / 2.0;
@@ -75,8 +65,7 @@ public abstract class BasePNGNoise implements Noise2D {
 
   @Override
   public double noise(double x, double z) {
-    double[] imageCoords = worldToImage(x, z);
-    double brightness = sampleBrightness(imageCoords[0], imageCoords[1]);
+    double brightness = sampleBrightness(toImageX(x), toImageZ(z));
     return transformBrightness(brightness);
   }
 
@@ -89,57 +78,124 @@ public abstract class BasePNGNoise implements Noise2D {
     double fx = imageX - x0;
     double fz = imageZ - z0;
 
-    double brightness00 = getBrightness(pixels[z0 * width + x0]);
-    double brightness10 = getBrightness(pixels[z0 * width + x1]);
-    double brightness01 = getBrightness(pixels[z1 * width + x0]);
-    double brightness11 = getBrightness(pixels[z1 * width + x1]);
+    int brightness00 = brightness.get(x0, z0);
+    int brightness10 = brightness.get(x1, z0);
+    int brightness01 = brightness.get(x0, z1);
+    int brightness11 = brightness.get(x1, z1);
 
     double brightness0 = brightness00 * (1 - fx) + brightness10 * fx;
     double brightness1 = brightness01 * (1 - fx) + brightness11 * fx;
     return brightness0 * (1 - fz) + brightness1 * fz;
   }
 
-  protected int[] samplePixels(double imageX, double imageZ) {
-    int x0 = (int) Math.floor(imageX);
-    int z0 = (int) Math.floor(imageZ);
-    int x1 = Math.min(x0 + 1, width - 1);
-    int z1 = Math.min(z0 + 1, height - 1);
+  /**
+   * Samples the brightness of every cell of a grid rectangle, walking the map row by row.
+   * {@code out[(z - minZ) * sizeX + (x - minX)]} receives exactly the value sampled at (x, z).
+   */
+  public void sampleBrightness(
+    int minX,
+    int minZ,
+    int sizeX,
+    int sizeZ,
+    double[] out
+  ) {
+    SampleAxis columns = columnAxis(minX, sizeX);
+    SampleAxis rows = rowAxis(minZ, sizeZ);
+    BilinearStrip strip = new BilinearStrip(sizeX);
 
-    return new int[] {
-      pixels[z0 * width + x0],
-      pixels[z0 * width + x1],
-      pixels[z1 * width + x0],
-      pixels[z1 * width + x1],
-    };
+    for (int row = 0; row < sizeZ; row++) {
+      sampleBrightnessRow(columns, rows, row, strip);
+      System.arraycopy(strip.values, 0, out, row * sizeX, sizeX);
+    }
   }
 
-  protected double[] worldToImage(double x, double z) {
-    double clampedX = Math.clamp(x, -worldRadiusGridX, worldRadiusGridX);
-    double clampedZ = Math.clamp(z, -worldRadiusGridZ, worldRadiusGridZ);
+  /**
+   * Samples the brightness of one row of a rectangle described by precomputed axes
+   * into {@code strip.values}.
+   */
+  public void sampleBrightnessRow(
+    SampleAxis columns,
+    SampleAxis rows,
+    int row,
+    BilinearStrip strip
+  ) {
+    int z0 = rows.lower[row];
+    int z1 = rows.upper[row];
+    for (int column = 0; column < columns.lower.length; column++) {
+      int x0 = columns.lower[column];
+      int x1 = columns.upper[column];
+      strip.c00[column] = brightness.get(x0, z0);
+      strip.c10[column] = brightness.get(x1, z0);
+      strip.c01[column] = brightness.get(x0, z1);
+      strip.c11[column] = brightness.get(x1, z1);
+    }
+    strip.interpolate(columns, rows, row);
+  }
 
-    double imageX = centerX + clampedX * scaleX;
-    double imageZ = centerZ + clampedZ * scaleZ;
+  public SampleAxis columnAxis(int minX, int sizeX) {
+    return new SampleAxis(minX, sizeX, this::toImageX, width);
+  }
 
-    imageX = Math.clamp(imageX, 0, width - 1);
-    imageZ = Math.clamp(imageZ, 0, height - 1);
+  public SampleAxis rowAxis(int minZ, int sizeZ) {
+    return new SampleAxis(minZ, sizeZ, this::toImageZ, height);
+  }
 
-    return new double[] { imageX, imageZ };
+  /**
+   * Whether grid coordinates map to the same image coordinates in both maps,
+   * so that sample axes built for one map can be used for the other.
+   */
+  public boolean hasSameTransform(BasePNGNoise other) {
+    return (
+      width == other.width &&
+      height == other.height &&
+      worldRadiusGridX == other.worldRadiusGridX &&
+      worldRadiusGridZ == other.worldRadiusGridZ
+    );
   }
 
-  protected abstract double transformBrightness(double brightness);
+  /**
+   * Transforms a world grid X coordinate to an image X coordinate.
+   * Coordinates are transformed per axis so sampling does not allocate.
+   */
+  protected double toImageX(double x) {
+    double clampedX = Math.clamp(x, -worldRadiusGridX, worldRadiusGridX);
+    return Math.clamp(centerX + clampedX * scaleX, 0, width - 1);
+  }
 
-  protected double getBrightness(int rgb) {
-    int r = (rgb >> 16) & 0xFF;
-    int g = (rgb >> 8) & 0xFF;
-    int b = rgb & 0xFF;
-    return 0.299 * r + 0.587 * g + 0.114 * b;
+  /**
+   * Transforms a world grid Z coordinate to an image Z coordinate.
+   */
+  protected double toImageZ(double z) {
+    double clampedZ = Math.clamp(z, -worldRadiusGridZ, worldRadiusGridZ);
+    return Math.clamp(centerZ + clampedZ * scaleZ, 0, height - 1);
   }
 
+  protected abstract double transformBrightness(double brightness);
+
   public double getBrightness(int x, int z) {
     if (x < 0 || x >= width || z < 0 || z >= height) {
       return 0.0;
     }
-    return getBrightness(pixels[z * width + x]);
+    return brightness.get(x, z);
+  }
+
+  /**
+   * Returns the luminance plane, one unsigned byte per pixel.
+   */
+  public MapPlane getBrightnessPlane() {
+    return brightness;
+  }
+
+  public String getMapName() {
+    return mapName;
+  }
+
+  public int getWorldRadiusBlocksX() {
+    return worldRadiusBlocksX;
+  }
+
+  public int getWorldRadiusBlocksZ() {
+    return worldRadiusBlocksZ;
   }
 
   public int getWidth() {
@@ -173,44 +229,4 @@ public abstract class BasePNGNoise implements Noise2D {
   public double getWorldRadiusGridZ() {
     return worldRadiusGridZ;
   }
-
-  private BufferedImage loadImage(String mapName) {
-    return loadImageFromCache(mapName);
-  }
-
-  public static BufferedImage loadImageFromCache(String mapName) {
-    synchronized (imageCache) {
-      BufferedImage cached = imageCache.get(mapName);
-      if (cached != null) {
-        LOGGER.debug("Using cached {} map", mapName);
-        return cached;
-      }
-    }
-
-    Path mapPath = MapPathHelper.getMapPath(mapName);
-    try {
-      if (!Files.exists(mapPath)) {
-        LOGGER.error("{} map not found at: {}", mapName, mapPath);
-        return null;
-      }
-      BufferedImage image = ImageIO.read(mapPath.toFile());
-      if (image != null) {
-        synchronized (imageCache) {
-          imageCache.put(mapName, image);
-          LOGGER.debug("Cached {} map", mapName);
-        }
-      }
-      return image;
-    } catch (IOException e) {
-      LOGGER.error("Failed to load {} map from: {}", mapName, mapPath, e);
-      return null;
-    }
-  }
-
-  public static void clearImageCache() {
-    synchronized (imageCache) {
-      imageCache.clear();
-      LOGGER.info("Cleared PNG image cache");
-    }
-  }
 }
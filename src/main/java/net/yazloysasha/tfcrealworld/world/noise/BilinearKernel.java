@@ -0,0 +1,121 @@
+package net.yazloysasha.tfcrealworld.world.noise;
+
+import com.mojang.logging.LogUtils;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+
+/**
+ * Bilinear interpolation of a strip of grid cells which share the same row fraction.
+ *
+ * When the JVM runs with {@code --add-modules jdk.incubator.vector}, strips are interpolated
+ * with the Vector API, otherwise with a plain loop. Both do the same multiplications and
+ * additions in the same order, so they return exactly the same values as the per-point lookups.
+ */
+public abstract class BilinearKernel {
+
+  private static final Logger LOGGER = LogUtils.getLogger();
+
+  private static final String VECTOR_MODULE = "jdk.incubator.vector";
+  private static final String VECTOR_KERNEL =
+    "net.yazloysasha.tfcrealworld.world.noise.VectorBilinearKernel";
+
+  private static final BilinearKernel SCALAR = new Scalar();
+
+  @Nullable
+  private static final BilinearKernel VECTOR = loadVectorKernel();
+
+  private static final BilinearKernel INSTANCE = VECTOR != null
+    ? VECTOR
+    : SCALAR;
+
+  /**
+   * The fastest kernel available in this JVM.
+   */
+  public static BilinearKernel get() {
+    return INSTANCE;
+  }
+
+  public static BilinearKernel scalar() {
+    return SCALAR;
+  }
+
+  /**
+   * The Vector API kernel, or null if the incubator module is not available.
+   */
+  @Nullable
+  public static BilinearKernel vector() {
+    return VECTOR;
+  }
+
+  /**
+   * For every {@code i < length}:
+   * {@code out[i] = (c00[i] * (1 - fx[i]) + c10[i] * fx[i]) * (1 - fz)
+   * + (c01[i] * (1 - fx[i]) + c11[i] * fx[i]) * fz}
+   */
+  public abstract void interpolate(
+    double[] c00,
+    double[] c10,
+    double[] c01,
+    double[] c11,
+    double[] fx,
+    double fz,
+    double[] out,
+    int length
+  );
+
+  public abstract String getName();
+
+  /**
+   * Loaded by name, so this class links without the incubator module.
+   */
+  @Nullable
+  private static BilinearKernel loadVectorKernel() {
+    if (Boolean.getBoolean("tfcrealworld.disableVectorKernel")) {
+      return null;
+    }
+    if (ModuleLayer.boot().findModule(VECTOR_MODULE).isEmpty()) {
+      LOGGER.info(
+        "Using scalar interpolation, start the JVM with --add-modules {} to use the Vector API",
+        VECTOR_MODULE
+      );
+      return null;
+    }
+
+    try {
+      BilinearKernel kernel = (BilinearKernel) Class.forName(VECTOR_KERNEL)
+        .getDeclaredConstructor()
+        .newInstance();
+      LOGGER.info("Using {} interpolation", kernel.getName());
+      return kernel;
+    } catch (ReflectiveOperationException | LinkageError e) {
+      LOGGER.warn("Vector API is not usable, using scalar interpolation", e);
+      return null;
+    }
+  }
+
+  static final class Scalar extends BilinearKernel {
+
+    @Override
+    public void interpolate(
+      double[] c00,
+      double[] c10,
+      double[] c01,
+      double[] c11,
+      double[] fx,
+      double fz,
+      double[] out,
+      int length
+    ) {
+      for (int i = 0; i < length; i++) {
+        double value0 = c00[i] * (1 - fx[i]) + c10[i] * fx[i];
+        double value1 = c01[i] * (1 - fx[i]) + c11[i] * fx[i];
+        out[i] = value0 * (1 - fz) + value1 * fz;
+      }
+    }
+
+    @Override
+    public String getName() {
+      return "scalar";
+    }
+  }
+}
@@ -0,0 +1,44 @@
+package net.yazloysasha.tfcrealworld.world.noise;
+
+/**
+ * Scratch space for interpolating one row of a grid rectangle at a time.
+ *
+ * A map gathers the four corner values of every cell of the row into {@link #c00}, {@link #c10},
+ * {@link #c01} and {@link #c11}, and {@link #interpolate} writes the results to {@link #values}.
+ * One strip can be reused for every row and every map of a rectangle.
+ */
+public final class BilinearStrip {
+
+  public final double[] c00;
+  public final double[] c10;
+  public final double[] c01;
+  public final double[] c11;
+  public final double[] values;
+  private final BilinearKernel kernel;
+
+  public BilinearStrip(int length) {
+    this(length, BilinearKernel.get());
+  }
+
+  public BilinearStrip(int length, BilinearKernel kernel) {
+    this.c00 = new double[length];
+    this.c10 = new double[length];
+    this.c01 = new double[length];
+    this.c11 = new double[length];
+    this.values = new double[length];
+    this.kernel = kernel;
+  }
+
+  public void interpolate(SampleAxis columns, SampleAxis rows, int row) {
+    kernel.interpolate(
+      c00,
+      c10,
+      c01,
+      c11,
+      columns.fraction,
+      rows.fraction[row],
+      values,
+      columns.fraction.length
+    );
+  }
+}
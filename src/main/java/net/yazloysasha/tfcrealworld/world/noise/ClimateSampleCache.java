@@ -0,0 +1,114 @@
+package net.yazloysasha.tfcrealworld.world.noise;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import net.yazloysasha.tfcrealworld.util.WorldgenMetrics;
+
+/**
+ * Bounded cache of climate samples at integer grid points, shared by all worldgen threads.
+ *
+ * Neighbouring regions overlap, so the same grid points are annotated with climate several times.
+ * The cache is direct-mapped: every (x, z) key hashes to one slot, and a new sample simply
+ * replaces whatever was stored there. Each slot is guarded by a stamp which is odd while the
+ * slot is being written, so readers never see a half-written sample and nothing is locked
+ * or allocated.
+ */
+public final class ClimateSampleCache {
+
+  private static final VarHandle STAMPS =
+    MethodHandles.arrayElementVarHandle(int[].class);
+
+  private static final int VALUES_PER_SLOT = 3;
+
+  private final int mask;
+  // Stamp 0 is an empty slot, odd stamps are slots being written
+  private final int[] stamps;
+  private final long[] keys;
+  private final double[] values;
+
+  /**
+   * @param size number of slots, rounded up to a power of two
+   */
+  public ClimateSampleCache(int size) {
+    int capacity = Integer.highestOneBit(Math.max(size - 1, 1)) << 1;
+    this.mask = capacity - 1;
+    this.stamps = new int[capacity];
+    this.keys = new long[capacity];
+    this.values = new double[capacity * VALUES_PER_SLOT];
+  }
+
+  public static long key(int x, int z) {
+    return ((long) x << 32) | (z & 0xFFFFFFFFL);
+  }
+
+  public int capacity() {
+    return mask + 1;
+  }
+
+  /**
+   * Copies the sample stored for {@code key} into {@code out} as temperature, rainfall
+   * and rainfall variance. Returns false, leaving {@code out} undefined, if it is not cached.
+   */
+  public boolean get(long key, double[] out) {
+    int slot = slot(key);
+    int stamp = (int) STAMPS.getAcquire(stamps, slot);
+    if (stamp == 0 || (stamp & 1) != 0) {
+      WorldgenMetrics.miss(WorldgenMetrics.Cache.CLIMATE_SAMPLES);
+      return false;
+    }
+
+    long storedKey = keys[slot];
+    int offset = slot * VALUES_PER_SLOT;
+    out[0] = values[offset];
+    out[1] = values[offset + 1];
+    out[2] = values[offset + 2];
+
+    VarHandle.acquireFence();
+    if (storedKey != key || (int) STAMPS.getVolatile(stamps, slot) != stamp) {
+      WorldgenMetrics.miss(WorldgenMetrics.Cache.CLIMATE_SAMPLES);
+      return false;
+    }
+    WorldgenMetrics.hit(WorldgenMetrics.Cache.CLIMATE_SAMPLES);
+    return true;
+  }
+
+  /**
+   * Stores a sample, replacing the one in its slot. Skipped if another thread is writing the slot.
+   */
+  public void put(
+    long key,
+    double temperature,
+    double rainfall,
+    double rainfallVariance
+  ) {
+    int slot = slot(key);
+    int stamp = (int) STAMPS.getVolatile(stamps, slot);
+    if (
+      (stamp & 1) != 0 ||
+      !STAMPS.compareAndSet(stamps, slot, stamp, stamp + 1)
+    ) {
+      return;
+    }
+
+    keys[slot] = key;
+    int offset = slot * VALUES_PER_SLOT;
+    values[offset] = temperature;
+    values[offset + 1] = rainfall;
+    values[offset + 2] = rainfallVariance;
+
+    // Skip 0 on overflow, it marks empty slots
+    int next = stamp + 2;
+    STAMPS.setRelease(stamps, slot, next == 0 ? 2 : next);
+  }
+
+  private int slot(long key) {
+    // Finalizer of MurmurHash3, spreads neighbouring points over the whole table
+    long h = key;
+    h ^= h >>> 33;
+    h *= 0xff51afd7ed558ccdL;
+    h ^= h >>> 33;
+    h *= 0xc4ceb9fe1a85ec53L;
+    h ^= h >>> 33;
+    return (int) h & mask;
+  }
+}
@@ -0,0 +1,238 @@
+package net.yazloysasha.tfcrealworld.world.noise;
+
+import net.dries007.tfc.world.noise.Noise2D;
+import net.dries007.tfc.world.noise.OpenSimplex2D;
+import net.yazloysasha.tfcrealworld.config.TFCRealWorldConfig;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Samples temperature, rainfall and rainfall variance from the Köppen map in a single pass.
+ *
+ * AnnotateClimate queries all three climate noises for the same grid point one after another,
+ * so the result of the last sampled point is kept per thread and reused by the
+ * KoppenBasedTemperatureNoise, KoppenBasedRainfallNoise and KoppenBasedRainfallVarianceNoise facades.
+ * Temperature and rainfall share the same index noise, so their parameter lookups are shared as well.
+ * Samples at integer grid points are also kept in a {@link ClimateSampleCache}, because
+ * neighbouring regions annotate the same points.
+ */
+public class KoppenClimateSampler {
+
+  private final PNGKoppenNoise koppenNoise;
+  private final KoppenParameterCache parameterCache;
+  private final Noise2D climateIndexNoise; // Index (0.0-1.0) for temperature and rainfall
+  private final Noise2D rainVarIndexNoise; // Index (0.0-1.0) for rainfall variance
+  @Nullable
+  private final ClimateSampleCache cache;
+
+  @Nullable
+  private final BakedClimateRaster bakedClimate;
+  private final ThreadLocal<Sample> lastSample = ThreadLocal.withInitial(
+    Sample::new
+  );
+
+  public KoppenClimateSampler(PNGKoppenNoise koppenNoise, long seed) {
+    this(koppenNoise, seed, TFCRealWorldConfig.getClimateCacheSize(), null);
+  }
+
+  public KoppenClimateSampler(
+    PNGKoppenNoise koppenNoise,
+    long seed,
+    int cacheSize
+  ) {
+    this(koppenNoise, seed, cacheSize, null);
+  }
+
+  /**
+   * @param cacheSize number of grid points kept in the shared sample cache, 0 to disable it
+   * @param bakedClimate climate baked for the same seed, used for grid points inside the map
+   */
+  public KoppenClimateSampler(
+    PNGKoppenNoise koppenNoise,
+    long seed,
+    int cacheSize,
+    @Nullable BakedClimateRaster bakedClimate
+  ) {
+    this.koppenNoise = koppenNoise;
+    this.cache = cacheSize > 0 ? new ClimateSampleCache(cacheSize) : null;
+    this.bakedClimate = bakedClimate;
+    this.parameterCache = KoppenParameterCache.getInstance();
+    // Use the same seed for all three parameters to ensure consistency
+    // Parameters match original TFC: spread 0.15f (0.1f for variance), 2 octaves for finer patterns
+    this.climateIndexNoise = new OpenSimplex2D(seed)
+      .octaves(2)
+      .spread(0.15f)
+      .scaled(0.0, 1.0);
+    this.rainVarIndexNoise = new OpenSimplex2D(seed)
+      .octaves(2)
+      .spread(0.1f)
+      .scaled(0.0, 1.0);
+  }
+
+  public double temperature(double x, double z) {
+    return sample(x, z).temperature;
+  }
+
+  public double rainfall(double x, double z) {
+    return sample(x, z).rainfall;
+  }
+
+  /**
+   * Note: The returned value is for northern hemisphere. For southern hemisphere,
+   * the sign should be inverted (as done in AnnotateClimateMixin).
+   */
+  public double rainfallVariance(double x, double z) {
+    return sample(x, z).rainfallVariance;
+  }
+
+  private Sample sample(double x, double z) {
+    Sample sample = lastSample.get();
+    if (!sample.valid || sample.x != x || sample.z != z) {
+      int gridX = (int) x;
+      int gridZ = (int) z;
+      boolean onGrid = gridX == x && gridZ == z;
+      int bakedIndex = bakedClimate != null && onGrid
+        ? bakedClimate.indexOf(gridX, gridZ)
+        : -1;
+      if (bakedIndex >= 0) {
+        sample.temperature = bakedClimate.temperature(bakedIndex);
+        sample.rainfall = bakedClimate.rainfall(bakedIndex);
+        sample.rainfallVariance = bakedClimate.rainfallVariance(bakedIndex);
+        sample.x = x;
+        sample.z = z;
+        sample.valid = true;
+      } else if (cache != null && onGrid) {
+        long key = ClimateSampleCache.key(gridX, gridZ);
+        if (cache.get(key, sample.cached)) {
+          sample.temperature = sample.cached[0];
+          sample.rainfall = sample.cached[1];
+          sample.rainfallVariance = sample.cached[2];
+          sample.x = x;
+          sample.z = z;
+          sample.valid = true;
+        } else {
+          compute(x, z, sample);
+          cache.put(
+            key,
+            sample.temperature,
+            sample.rainfall,
+            sample.rainfallVariance
+          );
+        }
+      } else {
+        compute(x, z, sample);
+      }
+    }
+    return sample;
+  }
+
+  private void compute(double x, double z, Sample sample) {
+    PNGKoppenNoise.ClimateInterpolationResult interpolation =
+      koppenNoise.getClimateInterpolation(x, z, sample.interpolation);
+
+    // Get parameters from cache for each of the 4 climates
+    // All parameters are guaranteed to belong to their zone
+    int climate00 = interpolation.climate00.ordinal();
+    int climate10 = interpolation.climate10.ordinal();
+    int climate01 = interpolation.climate01.ordinal();
+    int climate11 = interpolation.climate11.ordinal();
+
+    double[] indices = sample.indices;
+    cornerIndices(climateIndexNoise, x, z, indices);
+
+    sample.temperature =
+      parameterCache.temperatureAt(climate00, indices[0]) *
+        interpolation.weight00 +
+      parameterCache.temperatureAt(climate10, indices[1]) *
+        interpolation.weight10 +
+      parameterCache.temperatureAt(climate01, indices[2]) *
+        interpolation.weight01 +
+      parameterCache.temperatureAt(climate11, indices[3]) *
+        interpolation.weight11;
+
+    double rainfall =
+      parameterCache.rainfallAt(climate00, indices[0]) *
+        interpolation.weight00 +
+      parameterCache.rainfallAt(climate10, indices[1]) *
+        interpolation.weight10 +
+      parameterCache.rainfallAt(climate01, indices[2]) *
+        interpolation.weight01 +
+      parameterCache.rainfallAt(climate11, indices[3]) *
+        interpolation.weight11;
+    sample.rainfall = Math.clamp(rainfall, 0.0, 500.0);
+
+    cornerIndices(rainVarIndexNoise, x, z, indices);
+    double rainVar =
+      parameterCache.rainVarAt(climate00, indices[0]) *
+        interpolation.weight00 +
+      parameterCache.rainVarAt(climate10, indices[1]) *
+        interpolation.weight10 +
+      parameterCache.rainVarAt(climate01, indices[2]) *
+        interpolation.weight01 +
+      parameterCache.rainVarAt(climate11, indices[3]) *
+        interpolation.weight11;
+    sample.rainfallVariance = Math.clamp(rainVar, -1.0, 1.0);
+
+    sample.x = x;
+    sample.z = z;
+    sample.valid = true;
+  }
+
+  /**
+   * Generates indices for each corner with smooth variations.
+   * Uses smaller variations for finer patterns (as in original TFC).
+   */
+  private void cornerIndices(
+    Noise2D indexNoise,
+    double x,
+    double z,
+    double[] indices
+  ) {
+    double rawIndex = indexNoise.noise(x, z);
+    double baseIndex = smoothstep(Math.clamp(rawIndex, 0.0, 1.0));
+
+    indices[0] = cornerIndex(indexNoise, baseIndex, x - 0.1, z - 0.1);
+    indices[1] = cornerIndex(indexNoise, baseIndex, x + 0.1, z - 0.1);
+    indices[2] = cornerIndex(indexNoise, baseIndex, x - 0.1, z + 0.1);
+    indices[3] = cornerIndex(indexNoise, baseIndex, x + 0.1, z + 0.1);
+  }
+
+  private double cornerIndex(
+    Noise2D indexNoise,
+    double baseIndex,
+    double x,
+    double z
+  ) {
+    return smoothstep(
+      Math.clamp(
+        baseIndex + (indexNoise.noise(x, z) - 0.5) * 0.08,
+        0.0,
+        1.0
+      )
+    );
+  }
+
+  /**
+   * Smoothstep function for smoother interpolation.
+   * Returns 0 for t=0, 1 for t=1, with smooth S-curve in between.
+   */
+  private double smoothstep(double t) {
+    return t * t * (3.0 - 2.0 * t);
+  }
+
+  /**
+   * Last sampled point of the current thread.
+   */
+  private static class Sample {
+
+    final PNGKoppenNoise.ClimateInterpolationResult interpolation =
+      new PNGKoppenNoise.ClimateInterpolationResult();
+    final double[] indices = new double[4];
+    final double[] cached = new double[3];
+    boolean valid;
+    double x;
+    double z;
+    double temperature;
+    double rainfall;
+    double rainfallVariance;
+  }
+}
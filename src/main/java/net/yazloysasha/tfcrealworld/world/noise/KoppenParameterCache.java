@@ -1,13 +1,24 @@
 package net.yazloysasha.tfcrealworld.world.noise;
 
 import com.mojang.logging.LogUtils;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import it.unimi.dsi.fastutil.ints.IntArrays;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import net.dries007.tfc.TerraFirmaCraft;
 import net.dries007.tfc.util.climate.KoppenClimateClassification;
+import net.neoforged.fml.ModList;
+import net.yazloysasha.tfcrealworld.util.DerivedMapCache;
+import net.yazloysasha.tfcrealworld.util.MapPathHelper;
+import net.yazloysasha.tfcrealworld.util.WorldgenMetrics;
+import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
 
 /**
@@ -19,11 +30,35 @@ import org.slf4j.Logger;
  * Based on the approach from maps.py: _build_climate_to_parameters_mapper().
  *
  * Memory-optimized: stores data as primitive arrays instead of objects to reduce memory footprint.
+ *
+ * The sorted tables only depend on the parameter grid and on the classification, so they are
+ * saved to {@code koppen_parameters.bin} in the maps directory and loaded from there on later
+ * boots. The file is keyed by a fingerprint of the grid, the TFC version and classify() results
+ * on a coarse probe grid. The probes alone could miss a moved classification boundary, so any
+ * TFC update rebuilds the tables.
  */
 public class KoppenParameterCache {
 
   private static final Logger LOGGER = LogUtils.getLogger();
 
+  private static final String TABLES_FILE = "koppen_parameters.bin";
+
+  // Parameter grid: min, max and step of temperature, rainfall and rainVar
+  private static final float[] GRID = {
+    -20.0f,
+    30.0f,
+    0.1f,
+    0.0f,
+    500.0f,
+    10.0f,
+    -1.0f,
+    1.0f,
+    0.1f,
+  };
+
+  // Every n-th grid value of each axis is classified for the fingerprint
+  private static final int PROBE_STRIDE = 5;
+
   /**
    * Represents a valid parameter combination for a climate.
    * Stores temperature, rainfall, and rainVar as a single valid combination.
@@ -73,28 +108,32 @@ public class KoppenParameterCache {
   }
 
   private static KoppenParameterCache instance;
-  private final Map<
-    KoppenClimateClassification,
-    ParameterArray
-  > climateCombinations;
+
+  // Everything below is indexed by KoppenClimateClassification.ordinal()
+  private final ParameterArray[] climateCombinations;
 
   // Cached base values and ranges for fast access
-  private final Map<KoppenClimateClassification, Float> baseTemperatures;
-  private final Map<KoppenClimateClassification, Float> baseRainfalls;
-  private final Map<KoppenClimateClassification, Float> baseRainVars;
-  private final Map<KoppenClimateClassification, float[]> temperatureRanges;
-  private final Map<KoppenClimateClassification, float[]> rainfallRanges;
-  private final Map<KoppenClimateClassification, float[]> rainVarRanges;
+  private final float[] baseTemperatures;
+  private final float[] baseRainfalls;
+  private final float[] baseRainVars;
+  private final float[][] temperatureRanges;
+  private final float[][] rainfallRanges;
+  private final float[][] rainVarRanges;
+  private final byte[] fingerprint;
 
   private KoppenParameterCache() {
-    this.climateCombinations = new HashMap<>();
-    this.baseTemperatures = new HashMap<>();
-    this.baseRainfalls = new HashMap<>();
-    this.baseRainVars = new HashMap<>();
-    this.temperatureRanges = new HashMap<>();
-    this.rainfallRanges = new HashMap<>();
-    this.rainVarRanges = new HashMap<>();
+    int climateCount = KoppenClimateClassification.values().length;
+    this.climateCombinations = new ParameterArray[climateCount];
+    this.baseTemperatures = new float[climateCount];
+    this.baseRainfalls = new float[climateCount];
+    this.baseRainVars = new float[climateCount];
+    this.temperatureRanges = new float[climateCount][];
+    this.rainfallRanges = new float[climateCount][];
+    this.rainVarRanges = new float[climateCount][];
+    long start = WorldgenMetrics.start();
+    this.fingerprint = fingerprint(KoppenClimateClassification.values());
     buildCache();
+    WorldgenMetrics.record(WorldgenMetrics.Stage.PARAMETER_CACHE_BUILD, start);
   }
 
   public static synchronized KoppenParameterCache getInstance() {
@@ -118,8 +157,8 @@ public class KoppenParameterCache {
     KoppenClimateClassification climate,
     long seed
   ) {
-    ParameterArray combinations = climateCombinations.get(climate);
-    if (combinations == null || combinations.temperatures.length == 0) {
+    ParameterArray combinations = climateCombinations[climate.ordinal()];
+    if (combinations.temperatures.length == 0) {
       LOGGER.warn(
         "No parameter combinations found for climate: {}, using defaults",
         climate
@@ -143,24 +182,72 @@ public class KoppenParameterCache {
     KoppenClimateClassification climate,
     double index
   ) {
-    ParameterArray combinations = climateCombinations.get(climate);
-    if (combinations == null || combinations.temperatures.length == 0) {
+    int ordinal = climate.ordinal();
+    return new ParameterCombination(
+      temperatureAt(ordinal, index),
+      rainfallAt(ordinal, index),
+      rainVarAt(ordinal, index)
+    );
+  }
+
+  /**
+   * Temperature of {@link #getParametersByIndex} without allocating.
+   */
+  public float temperatureAt(int climateOrdinal, double index) {
+    return valueAt(
+      climateOrdinal,
+      climateCombinations[climateOrdinal].temperatures,
+      index,
+      5.0f
+    );
+  }
+
+  /**
+   * Rainfall of {@link #getParametersByIndex} without allocating.
+   */
+  public float rainfallAt(int climateOrdinal, double index) {
+    return valueAt(
+      climateOrdinal,
+      climateCombinations[climateOrdinal].rainfalls,
+      index,
+      100.0f
+    );
+  }
+
+  /**
+   * Rainfall variance of {@link #getParametersByIndex} without allocating.
+   */
+  public float rainVarAt(int climateOrdinal, double index) {
+    return valueAt(
+      climateOrdinal,
+      climateCombinations[climateOrdinal].rainVars,
+      index,
+      0.0f
+    );
+  }
+
+  private float valueAt(
+    int climateOrdinal,
+    float[] values,
+    double index,
+    float fallback
+  ) {
+    int arrayLength = values.length;
+    if (arrayLength == 0) {
       LOGGER.warn(
         "No parameter combinations found for climate: {}, using defaults",
-        climate
+        KoppenClimateClassification.values()[climateOrdinal]
       );
-      return new ParameterCombination(5.0f, 100.0f, 0.0f);
+      return fallback;
     }
 
-    // Clamp index to [0.0, 1.0]
-    index = Math.clamp(index, 0.0, 1.0);
-
-    int arrayLength = combinations.temperatures.length;
-
     if (arrayLength == 1) {
-      return combinations.get(0);
+      return values[0];
     }
 
+    // Clamp index to [0.0, 1.0]
+    index = Math.clamp(index, 0.0, 1.0);
+
     double exactPosition = index * (arrayLength - 1);
     int lowerIndex = (int) Math.floor(exactPosition);
     int upperIndex = Math.min(lowerIndex + 1, arrayLength - 1);
@@ -168,102 +255,62 @@ public class KoppenParameterCache {
     double t = exactPosition - lowerIndex;
 
     if (t < 0.001 || lowerIndex == upperIndex) {
-      return combinations.get(lowerIndex);
+      return values[lowerIndex];
     }
 
     // Linear interpolation between two adjacent parameter combinations
-    ParameterCombination lower = combinations.get(lowerIndex);
-    ParameterCombination upper = combinations.get(upperIndex);
-
-    float temp = (float) (lower.temperature +
-      (upper.temperature - lower.temperature) * t);
-    float rain = (float) (lower.rainfall +
-      (upper.rainfall - lower.rainfall) * t);
-    float rainVar = (float) (lower.rainVar +
-      (upper.rainVar - lower.rainVar) * t);
-
-    return new ParameterCombination(temp, rain, rainVar);
+    float lower = values[lowerIndex];
+    float upper = values[upperIndex];
+    return (float) (lower + (upper - lower) * t);
   }
 
   /**
    * Gets the base (average) temperature for the given climate.
    */
   public float getBaseTemperature(KoppenClimateClassification climate) {
-    Float cached = baseTemperatures.get(climate);
-    if (cached != null) {
-      return cached;
-    }
-    // Fallback (should not happen after cache is built)
-    LOGGER.warn(
-      "No cached temperature found for climate: {}, using default",
-      climate
-    );
-    return 5.0f;
+    return baseTemperatures[climate.ordinal()];
   }
 
   /**
    * Gets the base (average) rainfall for the given climate.
    */
   public float getBaseRainfall(KoppenClimateClassification climate) {
-    Float cached = baseRainfalls.get(climate);
-    if (cached != null) {
-      return cached;
-    }
-    // Fallback (should not happen after cache is built)
-    LOGGER.warn(
-      "No cached rainfall found for climate: {}, using default",
-      climate
-    );
-    return 100.0f;
+    return baseRainfalls[climate.ordinal()];
   }
 
   /**
    * Gets the base (average) rainfall variance for the given climate.
    */
   public float getBaseRainVar(KoppenClimateClassification climate) {
-    Float cached = baseRainVars.get(climate);
-    if (cached != null) {
-      return cached;
-    }
-    // Fallback (should not happen after cache is built)
-    LOGGER.warn(
-      "No cached rainVar found for climate: {}, using default",
-      climate
-    );
-    return 0.0f;
+    return baseRainVars[climate.ordinal()];
   }
 
   /**
    * Gets the minimum and maximum temperature values for the given climate.
    */
   public float[] getTemperatureRange(KoppenClimateClassification climate) {
-    float[] cached = temperatureRanges.get(climate);
-    if (cached != null) {
-      return cached;
-    }
-    return new float[] { -20.0f, 30.0f };
+    return temperatureRanges[climate.ordinal()];
   }
 
   /**
    * Gets the minimum and maximum rainfall values for the given climate.
    */
   public float[] getRainfallRange(KoppenClimateClassification climate) {
-    float[] cached = rainfallRanges.get(climate);
-    if (cached != null) {
-      return cached;
-    }
-    return new float[] { 0.0f, 500.0f };
+    return rainfallRanges[climate.ordinal()];
   }
 
   /**
    * Gets the minimum and maximum rainfall variance values for the given climate.
    */
   public float[] getRainVarRange(KoppenClimateClassification climate) {
-    float[] cached = rainVarRanges.get(climate);
-    if (cached != null) {
-      return cached;
-    }
-    return new float[] { -1.0f, 1.0f };
+    return rainVarRanges[climate.ordinal()];
+  }
+
+  /**
+   * Leading bits of the fingerprint the tables were built for, for keying data derived from them.
+   */
+  public int getFingerprint() {
+    return ByteBuffer.wrap(fingerprint).getInt();
   }
 
   /**
@@ -276,79 +323,24 @@ public class KoppenParameterCache {
   private void buildCache() {
     LOGGER.info("Building Köppen parameter cache...");
 
-    float[] temperatures = generateRange(-20.0f, 30.0f, 0.1f);
-    float[] rainfalls = generateRange(0.0f, 500.0f, 10.0f);
-    float[] rainVars = generateRange(-1.0f, 1.0f, 0.1f);
-    Map<KoppenClimateClassification, Integer> climateCounts = new HashMap<>();
-    for (KoppenClimateClassification climate : KoppenClimateClassification.values()) {
-      climateCounts.put(climate, 0);
-    }
-
-    int processed = 0;
-
-    for (float temp : temperatures) {
-      for (float rain : rainfalls) {
-        for (float rainVar : rainVars) {
-          KoppenClimateClassification climate =
-            KoppenClimateClassification.classify(temp, rain, rainVar, true);
-          climateCounts.put(climate, climateCounts.get(climate) + 1);
-          processed++;
-        }
-      }
-    }
-
-    LOGGER.info("Processed {} parameter combinations", processed);
-
-    for (Map.Entry<
-      KoppenClimateClassification,
-      Integer
-    > entry : climateCounts.entrySet()) {
-      climateCombinations.put(
-        entry.getKey(),
-        new ParameterArray(entry.getValue())
-      );
-    }
-
-    Map<KoppenClimateClassification, Integer> climateIndices = new HashMap<>();
-    for (KoppenClimateClassification climate : KoppenClimateClassification.values()) {
-      climateIndices.put(climate, 0);
-    }
+    KoppenClimateClassification[] climates =
+      KoppenClimateClassification.values();
 
-    for (float temp : temperatures) {
-      for (float rain : rainfalls) {
-        for (float rainVar : rainVars) {
-          KoppenClimateClassification climate =
-            KoppenClimateClassification.classify(temp, rain, rainVar, true);
-          ParameterArray array = climateCombinations.get(climate);
-          int index = climateIndices.get(climate);
-          array.temperatures[index] = temp;
-          array.rainfalls[index] = rain;
-          array.rainVars[index] = rainVar;
-          climateIndices.put(climate, index + 1);
-        }
-      }
+    ParameterArray[] tables = loadTables(fingerprint, climates.length);
+    if (tables == null) {
+      tables = computeTables(climates);
+      saveTables(fingerprint, tables);
     }
 
-    // Sort parameters by 3 values: lowest first, then gradually increasing
-    LOGGER.info(
-      "Sorting parameter combinations by temperature, rainfall, and rainVar..."
-    );
-    for (KoppenClimateClassification climate : KoppenClimateClassification.values()) {
-      ParameterArray array = climateCombinations.get(climate);
-      if (array != null && array.temperatures.length > 0) {
-        sortParameterArray(array);
-      }
-    }
+    System.arraycopy(tables, 0, climateCombinations, 0, tables.length);
 
-    int totalCombinations = climateCombinations
-      .values()
-      .stream()
+    int totalCombinations = Arrays.stream(climateCombinations)
       .mapToInt(array -> array.temperatures.length)
       .sum();
 
     LOGGER.info("Parameter combinations by climate:");
     for (KoppenClimateClassification climate : KoppenClimateClassification.values()) {
-      ParameterArray combinations = climateCombinations.get(climate);
+      ParameterArray combinations = climateCombinations[climate.ordinal()];
       int count = combinations.temperatures.length;
       if (count > 0) {
         double percentage = (count / (double) totalCombinations) * 100.0;
@@ -366,13 +358,13 @@ public class KoppenParameterCache {
     LOGGER.info(
       "Created {} parameter combinations across {} climates",
       totalCombinations,
-      climateCombinations.size()
+      climateCombinations.length
     );
 
     LOGGER.info("Pre-computing base values and ranges...");
-    for (KoppenClimateClassification climate : KoppenClimateClassification.values()) {
-      ParameterArray combinations = climateCombinations.get(climate);
-      if (combinations != null && combinations.temperatures.length > 0) {
+    for (int ordinal = 0; ordinal < climates.length; ordinal++) {
+      ParameterArray combinations = climateCombinations[ordinal];
+      if (combinations.temperatures.length > 0) {
         float tempSum = 0.0f;
         float tempMin = Float.MAX_VALUE;
         float tempMax = Float.MIN_VALUE;
@@ -381,11 +373,8 @@ public class KoppenParameterCache {
           if (temp < tempMin) tempMin = temp;
           if (temp > tempMax) tempMax = temp;
         }
-        baseTemperatures.put(
-          climate,
-          tempSum / combinations.temperatures.length
-        );
-        temperatureRanges.put(climate, new float[] { tempMin, tempMax });
+        baseTemperatures[ordinal] = tempSum / combinations.temperatures.length;
+        temperatureRanges[ordinal] = new float[] { tempMin, tempMax };
 
         float rainSum = 0.0f;
         float rainMin = Float.MAX_VALUE;
@@ -395,8 +384,8 @@ public class KoppenParameterCache {
           if (rain < rainMin) rainMin = rain;
           if (rain > rainMax) rainMax = rain;
         }
-        baseRainfalls.put(climate, rainSum / combinations.rainfalls.length);
-        rainfallRanges.put(climate, new float[] { rainMin, rainMax });
+        baseRainfalls[ordinal] = rainSum / combinations.rainfalls.length;
+        rainfallRanges[ordinal] = new float[] { rainMin, rainMax };
 
         float rainVarSum = 0.0f;
         float rainVarMin = Float.MAX_VALUE;
@@ -406,15 +395,15 @@ public class KoppenParameterCache {
           if (rainVar < rainVarMin) rainVarMin = rainVar;
           if (rainVar > rainVarMax) rainVarMax = rainVar;
         }
-        baseRainVars.put(climate, rainVarSum / combinations.rainVars.length);
-        rainVarRanges.put(climate, new float[] { rainVarMin, rainVarMax });
+        baseRainVars[ordinal] = rainVarSum / combinations.rainVars.length;
+        rainVarRanges[ordinal] = new float[] { rainVarMin, rainVarMax };
       } else {
-        baseTemperatures.put(climate, 5.0f);
-        temperatureRanges.put(climate, new float[] { -20.0f, 30.0f });
-        baseRainfalls.put(climate, 100.0f);
-        rainfallRanges.put(climate, new float[] { 0.0f, 500.0f });
-        baseRainVars.put(climate, 0.0f);
-        rainVarRanges.put(climate, new float[] { -1.0f, 1.0f });
+        baseTemperatures[ordinal] = 5.0f;
+        temperatureRanges[ordinal] = new float[] { -20.0f, 30.0f };
+        baseRainfalls[ordinal] = 100.0f;
+        rainfallRanges[ordinal] = new float[] { 0.0f, 500.0f };
+        baseRainVars[ordinal] = 0.0f;
+        rainVarRanges[ordinal] = new float[] { -1.0f, 1.0f };
       }
     }
 
@@ -465,36 +454,20 @@ public class KoppenParameterCache {
     if (rainRange < 0.001f) rainRange = 1.0f;
     if (rainVarRange < 0.001f) rainVarRange = 1.0f;
 
-    // Create list of indices
-    List<Integer> indices = new ArrayList<>(length);
+    // Combined normalized metric with equal weights (100 each)
+    // All three parameters are normalized to [0, 1] and summed with equal weights
+    double[] keys = new double[length];
+    int[] indices = new int[length];
     for (int i = 0; i < length; i++) {
-      indices.add(i);
+      double normTemp = (array.temperatures[i] - tempMin) / tempRange;
+      double normRain = (array.rainfalls[i] - rainMin) / rainRange;
+      double normRainVar = (array.rainVars[i] - rainVarMin) / rainVarRange;
+      keys[i] = normTemp * 100.0 + normRain * 100.0 + normRainVar * 100.0;
+      indices[i] = i;
     }
 
-    // Sort indices by combined normalized metric with equal weights (100 each)
-    // All three parameters are normalized to [0, 1] and summed with equal weights
-    final float finalTempMin = tempMin;
-    final float finalTempRange = tempRange;
-    final float finalRainMin = rainMin;
-    final float finalRainRange = rainRange;
-    final float finalRainVarMin = rainVarMin;
-    final float finalRainVarRange = rainVarRange;
-
-    Collections.sort(
-      indices,
-      Comparator.comparingDouble((Integer i) -> {
-        // Normalize all three parameters to [0, 1] range
-        double normTemp =
-          (array.temperatures[i] - finalTempMin) / finalTempRange;
-        double normRain = (array.rainfalls[i] - finalRainMin) / finalRainRange;
-        double normRainVar =
-          (array.rainVars[i] - finalRainVarMin) / finalRainVarRange;
-
-        // Combine all three parameters with equal weights (100 each)
-        // Use weighted sum for smooth interpolation across all parameters simultaneously
-        return normTemp * 100.0 + normRain * 100.0 + normRainVar * 100.0;
-      })
-    );
+    // Merge sort is stable, so equal keys keep the order of the grid sweep
+    IntArrays.mergeSort(indices, (a, b) -> Double.compare(keys[a], keys[b]));
 
     // Create temporary arrays
     float[] tempTemps = new float[length];
@@ -503,7 +476,7 @@ public class KoppenParameterCache {
 
     // Reorder arrays according to sorted indices
     for (int i = 0; i < length; i++) {
-      int originalIndex = indices.get(i);
+      int originalIndex = indices[i];
       tempTemps[i] = array.temperatures[originalIndex];
       tempRains[i] = array.rainfalls[originalIndex];
       tempRainVars[i] = array.rainVars[originalIndex];
@@ -515,7 +488,235 @@ public class KoppenParameterCache {
     System.arraycopy(tempRainVars, 0, array.rainVars, 0, length);
   }
 
-  private float[] generateRange(float min, float max, float step) {
+  /**
+   * Classifies every combination of the grid once and returns the sorted tables by climate ordinal.
+   * Based on _build_climate_to_parameters_mapper() from maps.py.
+   */
+  private ParameterArray[] computeTables(KoppenClimateClassification[] climates) {
+    float[] temperatures = generateRange(GRID[0], GRID[1], GRID[2]);
+    float[] rainfalls = generateRange(GRID[3], GRID[4], GRID[5]);
+    float[] rainVars = generateRange(GRID[6], GRID[7], GRID[8]);
+
+    int total = temperatures.length * rainfalls.length * rainVars.length;
+    byte[] classified = new byte[total];
+    int[] counts = new int[climates.length];
+
+    int processed = 0;
+    for (float temp : temperatures) {
+      for (float rain : rainfalls) {
+        for (float rainVar : rainVars) {
+          int ordinal = KoppenClimateClassification.classify(
+            temp,
+            rain,
+            rainVar,
+            true
+          ).ordinal();
+          classified[processed++] = (byte) ordinal;
+          counts[ordinal]++;
+        }
+      }
+    }
+
+    LOGGER.info("Processed {} parameter combinations", processed);
+
+    ParameterArray[] tables = new ParameterArray[climates.length];
+    for (int ordinal = 0; ordinal < climates.length; ordinal++) {
+      tables[ordinal] = new ParameterArray(counts[ordinal]);
+    }
+
+    int[] fill = new int[climates.length];
+    int combination = 0;
+    for (float temp : temperatures) {
+      for (float rain : rainfalls) {
+        for (float rainVar : rainVars) {
+          int ordinal = classified[combination++];
+          ParameterArray array = tables[ordinal];
+          int index = fill[ordinal]++;
+          array.temperatures[index] = temp;
+          array.rainfalls[index] = rain;
+          array.rainVars[index] = rainVar;
+        }
+      }
+    }
+
+    // Sort parameters by 3 values: lowest first, then gradually increasing
+    LOGGER.info(
+      "Sorting parameter combinations by temperature, rainfall, and rainVar..."
+    );
+    for (ParameterArray array : tables) {
+      if (array.temperatures.length > 0) {
+        sortParameterArray(array);
+      }
+    }
+    return tables;
+  }
+
+  /**
+   * SHA-256 of the grid, the TFC version, the climate names and classify() on a coarse probe
+   * grid. The version catches any TFC update, the probes catch a changed classification in a
+   * development build of TFC with high probability.
+   */
+  private byte[] fingerprint(KoppenClimateClassification[] climates) {
+    MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not available", e);
+    }
+
+    ByteBuffer grid = ByteBuffer.allocate(GRID.length * 4);
+    for (float value : GRID) {
+      grid.putFloat(value);
+    }
+    digest.update(grid.array());
+    digest.update(getTfcVersion().getBytes(StandardCharsets.UTF_8));
+    for (KoppenClimateClassification climate : climates) {
+      digest.update(climate.name().getBytes(StandardCharsets.UTF_8));
+    }
+
+    float[] temperatures = generateRange(GRID[0], GRID[1], GRID[2]);
+    float[] rainfalls = generateRange(GRID[3], GRID[4], GRID[5]);
+    float[] rainVars = generateRange(GRID[6], GRID[7], GRID[8]);
+    for (int t = 0; t < temperatures.length; t += PROBE_STRIDE) {
+      for (int r = 0; r < rainfalls.length; r += PROBE_STRIDE) {
+        for (int v = 0; v < rainVars.length; v += PROBE_STRIDE) {
+          digest.update(
+            (byte) KoppenClimateClassification.classify(
+              temperatures[t],
+              rainfalls[r],
+              rainVars[v],
+              true
+            ).ordinal()
+          );
+        }
+      }
+    }
+    return digest.digest();
+  }
+
+  /**
+   * Version of the loaded TFC mod, or an empty string outside of a mod loader.
+   */
+  private static String getTfcVersion() {
+    ModList modList = ModList.get();
+    if (modList == null) {
+      return "";
+    }
+    return modList
+      .getModContainerById(TerraFirmaCraft.MOD_ID)
+      .map(container -> container.getModInfo().getVersion().toString())
+      .orElse("");
+  }
+
+  private static Path getTablesPath() {
+    return MapPathHelper.getMapsDirectory().resolve(TABLES_FILE);
+  }
+
+  /**
+   * Loads the tables saved by a previous boot, or returns null if they are missing or stale.
+   * Layout after the header: for each climate ordinal, the combination count followed by
+   * the temperatures, rainfalls and rainVars.
+   */
+  @Nullable
+  private ParameterArray[] loadTables(byte[] fingerprint, int climateCount) {
+    Path path = getTablesPath();
+    if (!Files.isRegularFile(path)) {
+      return null;
+    }
+
+    int[] parameters = { climateCount };
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      int headerSize = DerivedMapCache.headerSize(parameters);
+      long length = channel.size() - headerSize;
+      if (length < 0 || channel.size() > Integer.MAX_VALUE) {
+        return null;
+      }
+
+      ByteBuffer buffer = ByteBuffer.allocate((int) channel.size());
+      while (buffer.hasRemaining()) {
+        if (channel.read(buffer) < 0) {
+          return null;
+        }
+      }
+      buffer.flip();
+
+      if (!DerivedMapCache.readHeader(buffer, fingerprint, parameters, length)) {
+        LOGGER.info("Ignoring stale Köppen parameter tables: {}", path);
+        return null;
+      }
+
+      ParameterArray[] tables = new ParameterArray[climateCount];
+      for (int ordinal = 0; ordinal < climateCount; ordinal++) {
+        int count = buffer.getInt();
+        if (count < 0 || (long) count * 12 > buffer.remaining()) {
+          return null;
+        }
+        ParameterArray array = new ParameterArray(count);
+        buffer.asFloatBuffer().get(array.temperatures);
+        buffer.position(buffer.position() + count * 4);
+        buffer.asFloatBuffer().get(array.rainfalls);
+        buffer.position(buffer.position() + count * 4);
+        buffer.asFloatBuffer().get(array.rainVars);
+        buffer.position(buffer.position() + count * 4);
+        tables[ordinal] = array;
+      }
+
+      LOGGER.info("Loaded Köppen parameter tables from: {}", path);
+      return tables;
+    } catch (IOException | RuntimeException e) {
+      LOGGER.warn("Failed to read Köppen parameter tables from: {}", path, e);
+      return null;
+    }
+  }
+
+  private void saveTables(byte[] fingerprint, ParameterArray[] tables) {
+    Path path = getTablesPath();
+    Path tempPath = DerivedMapCache.getTempPath(path);
+
+    int length = 0;
+    for (ParameterArray array : tables) {
+      length += 4 + array.temperatures.length * 12;
+    }
+    ByteBuffer body = ByteBuffer.allocate(length);
+    for (ParameterArray array : tables) {
+      body.putInt(array.temperatures.length);
+      body.asFloatBuffer().put(array.temperatures);
+      body.position(body.position() + array.temperatures.length * 4);
+      body.asFloatBuffer().put(array.rainfalls);
+      body.position(body.position() + array.rainfalls.length * 4);
+      body.asFloatBuffer().put(array.rainVars);
+      body.position(body.position() + array.rainVars.length * 4);
+    }
+    body.flip();
+
+    try {
+      Files.createDirectories(path.getParent());
+      try (
+        FileChannel channel = FileChannel.open(
+          tempPath,
+          StandardOpenOption.CREATE,
+          StandardOpenOption.TRUNCATE_EXISTING,
+          StandardOpenOption.WRITE
+        )
+      ) {
+        DerivedMapCache.writeHeader(
+          channel,
+          fingerprint,
+          new int[] { tables.length },
+          length
+        );
+        while (body.hasRemaining()) {
+          channel.write(body);
+        }
+      }
+      DerivedMapCache.moveIntoPlace(tempPath, path);
+    } catch (IOException e) {
+      LOGGER.warn("Failed to write Köppen parameter tables to: {}", path, e);
+      DerivedMapCache.deleteQuietly(tempPath);
+    }
+  }
+
+  private static float[] generateRange(float min, float max, float step) {
     int count = (int) Math.ceil((max - min) / step) + 1;
     float[] range = new float[count];
     for (int i = 0; i < count; i++) {
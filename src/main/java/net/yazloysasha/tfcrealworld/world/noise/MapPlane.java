@@ -0,0 +1,259 @@
+package net.yazloysasha.tfcrealworld.world.noise;
+
+import com.mojang.logging.LogUtils;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import net.yazloysasha.tfcrealworld.util.MapPathHelper;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+
+/**
+ * One unsigned byte per pixel of a map, derived from the PNG once when it is loaded.
+ *
+ * Small maps are kept in a plain array. Maps larger than {@link #TILED_MIN_PIXELS} are
+ * stored as fixed-size tiles in a memory-mapped file next to the map, so they live off-heap
+ * and only the tiles which are actually sampled are paged in by the OS.
+ *
+ * The PNG is decoded row by row in a single pass, so neither the decoded image nor an ARGB copy
+ * of it is ever held in memory as a whole.
+ */
+public abstract class MapPlane {
+
+  private static final Logger LOGGER = LogUtils.getLogger();
+
+  // 4096x4096 pixels, 16 MiB as an array
+  public static final long TILED_MIN_PIXELS = 1L << 24;
+
+  private static final Map<String, MapPlane> cache = new ConcurrentHashMap<>();
+  // Different maps are decoded concurrently, the same map only once
+  private static final Map<String, Object> loadLocks = new ConcurrentHashMap<>();
+
+  /**
+   * Converts one row of ARGB pixels into plane values.
+   */
+  @FunctionalInterface
+  public interface RowConverter {
+    void convert(int[] rgb, byte[] out, int width);
+
+    /**
+     * Changes whenever the conversion changes, so that stale tile files are rebuilt.
+     */
+    default int fingerprint() {
+      return 0;
+    }
+  }
+
+  /**
+   * Rounded luminance of each pixel. The maps are grayscale, so it is exact for them.
+   */
+  public static final RowConverter BRIGHTNESS = (rgb, out, width) -> {
+    for (int x = 0; x < width; x++) {
+      out[x] = (byte) Math.round(getBrightness(rgb[x]));
+    }
+  };
+
+  protected final int width;
+  protected final int height;
+
+  protected MapPlane(int width, int height) {
+    this.width = width;
+    this.height = height;
+  }
+
+  /**
+   * Returns the unsigned value of the pixel. Coordinates must be inside the map.
+   */
+  public abstract int get(int x, int z);
+
+  /**
+   * Returns the unsigned value of the pixel at {@code index = z * width + x}.
+   */
+  public int getAt(int index) {
+    int z = index / width;
+    return get(index - z * width, z);
+  }
+
+  public int getWidth() {
+    return width;
+  }
+
+  public int getHeight() {
+    return height;
+  }
+
+  /**
+   * Loads a plane of the map, choosing array or tiled storage by map size.
+   * Planes are shared until {@link #clearCache()}. Returns null if the map can not be read.
+   */
+  @Nullable
+  public static MapPlane load(
+    String mapName,
+    String planeName,
+    RowConverter converter
+  ) {
+    String key = mapName + "." + planeName;
+    synchronized (loadLocks.computeIfAbsent(key, k -> new Object())) {
+      MapPlane cached = cache.get(key);
+      if (cached != null) {
+        LOGGER.debug("Using cached {} plane of {} map", planeName, mapName);
+        return cached;
+      }
+
+      MapPlane plane = read(mapName, planeName, converter, null);
+      if (plane != null) {
+        cache.put(key, plane);
+      }
+      return plane;
+    }
+  }
+
+  /**
+   * Loads a plane of the map with the given storage, bypassing the cache.
+   */
+  @Nullable
+  public static MapPlane load(
+    String mapName,
+    String planeName,
+    RowConverter converter,
+    boolean tiled
+  ) {
+    return read(mapName, planeName, converter, tiled);
+  }
+
+  public static void clearCache() {
+    cache.clear();
+    LOGGER.info("Cleared map plane cache");
+  }
+
+  public static double getBrightness(int rgb) {
+    int r = (rgb >> 16) & 0xFF;
+    int g = (rgb >> 8) & 0xFF;
+    int b = rgb & 0xFF;
+    return 0.299 * r + 0.587 * g + 0.114 * b;
+  }
+
+  @Nullable
+  private static MapPlane read(
+    String mapName,
+    String planeName,
+    RowConverter converter,
+    @Nullable Boolean tiled
+  ) {
+    Path mapPath = MapPathHelper.getMapPath(mapName);
+    if (!Files.exists(mapPath)) {
+      LOGGER.error("{} map not found at: {}", mapName, mapPath);
+      return null;
+    }
+
+    try {
+      int[] size = readSize(mapPath);
+      boolean useTiles = tiled != null
+        ? tiled
+        : (long) size[0] * size[1] >= TILED_MIN_PIXELS;
+      if (useTiles) {
+        return TiledMapPlane.open(
+          mapName,
+          planeName,
+          converter,
+          size[0],
+          size[1]
+        );
+      }
+
+      byte[] data = new byte[size[0] * size[1]];
+      decode(mapPath, converter, (z, row) ->
+        System.arraycopy(row, 0, data, z * size[0], size[0])
+      );
+      return new ArrayMapPlane(data, size[0], size[1]);
+    } catch (IOException e) {
+      LOGGER.error("Failed to load {} map from: {}", mapName, mapPath, e);
+      return null;
+    }
+  }
+
+  private static int[] readSize(Path mapPath) throws IOException {
+    try (ImageInputStream input = ImageIO.createImageInputStream(mapPath.toFile())) {
+      ImageReader reader = createReader(input, mapPath);
+      try {
+        return new int[] { reader.getWidth(0), reader.getHeight(0) };
+      } finally {
+        reader.dispose();
+      }
+    }
+  }
+
+  /**
+   * Receives converted rows in order from top to bottom. The row array is reused.
+   */
+  @FunctionalInterface
+  interface RowSink {
+    void accept(int z, byte[] row) throws IOException;
+  }
+
+  /**
+   * Decodes the map from top to bottom and passes every converted row to the sink.
+   */
+  static void decode(Path mapPath, RowConverter converter, RowSink sink)
+    throws IOException {
+    try (ImageInputStream input = ImageIO.createImageInputStream(mapPath.toFile())) {
+      ImageReader reader = createReader(input, mapPath);
+      try {
+        int width = reader.getWidth(0);
+        int height = reader.getHeight(0);
+        int[] rgb = new int[width];
+        byte[] row = new byte[width];
+
+        try (
+          PngRowDecoder png = PngRowDecoder.open(
+            mapPath,
+            reader.getImageTypes(0).next()
+          )
+        ) {
+          if (png != null) {
+            for (int z = 0; z < height; z++) {
+              png.readRow(rgb);
+              converter.convert(rgb, row, width);
+              sink.accept(z, row);
+            }
+            return;
+          }
+        }
+
+        // Interlaced PNGs and other formats can not be decoded by rows
+        LOGGER.info("Decoding {} as a whole image", mapPath);
+        BufferedImage image = reader.read(0);
+        for (int z = 0; z < height; z++) {
+          image.getRGB(0, z, width, 1, rgb, 0, width);
+          converter.convert(rgb, row, width);
+          sink.accept(z, row);
+        }
+      } finally {
+        reader.dispose();
+      }
+    }
+  }
+
+  private static ImageReader createReader(
+    @Nullable ImageInputStream input,
+    Path mapPath
+  ) throws IOException {
+    if (input == null) {
+      throw new IOException("Can not open " + mapPath);
+    }
+    Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+    if (!readers.hasNext()) {
+      throw new IOException("Unsupported image format: " + mapPath);
+    }
+    ImageReader reader = readers.next();
+    reader.setInput(input, true, true);
+    return reader;
+  }
+}
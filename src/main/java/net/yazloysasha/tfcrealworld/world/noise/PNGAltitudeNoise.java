@@ -27,8 +27,7 @@ public class PNGAltitudeNoise extends BasePNGNoise {
   }
 
   public byte getBaseLandHeight(double x, double z) {
-    double[] imageCoords = worldToImage(x, z);
-    double brightness = sampleBrightness(imageCoords[0], imageCoords[1]);
+    double brightness = sampleBrightness(toImageX(x), toImageZ(z));
     double height = transformBrightness(brightness);
     return (byte) Math.clamp(Math.round(height), 0, 24);
   }
@@ -46,8 +45,7 @@ public class PNGAltitudeNoise extends BasePNGNoise {
   }
 
   public byte getBaseOceanDepth(double x, double z) {
-    double[] imageCoords = worldToImage(x, z);
-    double brightness = sampleBrightness(imageCoords[0], imageCoords[1]);
+    double brightness = sampleBrightness(toImageX(x), toImageZ(z));
     double depth = transformOceanDepth(brightness);
     return (byte) Math.clamp(Math.round(depth), 0, 15);
   }
@@ -55,34 +53,53 @@ public class PNGAltitudeNoise extends BasePNGNoise {
   /**
    * Get both land height and ocean depth for the same coordinates efficiently.
    * Avoids duplicate coordinate transformation and brightness sampling.
+   * Both values are packed into one int, use {@link #landHeight(int)} and
+   * {@link #oceanDepth(int)} to unpack them.
    */
-  public AltitudeResult getAltitude(double x, double z) {
-    double[] imageCoords = worldToImage(x, z);
-    double brightness = sampleBrightness(imageCoords[0], imageCoords[1]);
-    byte landHeight = (byte) Math.clamp(
+  public int getAltitude(double x, double z) {
+    return toAltitude(sampleBrightness(toImageX(x), toImageZ(z)));
+  }
+
+  /**
+   * Batch version of {@link #getAltitude} for a grid rectangle, see
+   * {@link #sampleBrightness(int, int, int, int, double[])} for the layout of {@code out}.
+   */
+  public void getAltitudes(
+    int minX,
+    int minZ,
+    int sizeX,
+    int sizeZ,
+    int[] out
+  ) {
+    double[] samples = new double[sizeX * sizeZ];
+    sampleBrightness(minX, minZ, sizeX, sizeZ, samples);
+    for (int i = 0; i < samples.length; i++) {
+      out[i] = toAltitude(samples[i]);
+    }
+  }
+
+  /**
+   * Packs land height and ocean depth for a sampled brightness, like {@link #getAltitude}.
+   */
+  public int toAltitude(double brightness) {
+    int landHeight = (int) Math.clamp(
       Math.round(transformBrightness(brightness)),
       0,
       24
     );
-    byte oceanDepth = (byte) Math.clamp(
+    int oceanDepth = (int) Math.clamp(
       Math.round(transformOceanDepth(brightness)),
       0,
       15
     );
-    return new AltitudeResult(landHeight, oceanDepth);
+    return (landHeight << 8) | oceanDepth;
   }
 
-  /**
-   * Result containing both land height and ocean depth for the same coordinates.
-   */
-  public static class AltitudeResult {
-
-    public final byte landHeight;
-    public final byte oceanDepth;
+  public static byte landHeight(int altitude) {
+    return (byte) (altitude >> 8);
+  }
 
-    public AltitudeResult(byte landHeight, byte oceanDepth) {
-      this.landHeight = landHeight;
-      this.oceanDepth = oceanDepth;
-    }
+  public static byte oceanDepth(int altitude) {
+    return (byte) (altitude & 0xFF);
   }
 }
@@ -4,6 +4,20 @@ public class PNGContinentNoise extends BasePNGNoise {
 
   private static final String MAP_NAME = "continent";
 
+  // Continent values at or below this are ocean. Changing it changes the saved distance planes,
+  // bump the DERIVATION_VERSION of BaseDistanceCache with it
+  private static final double CONTINENT_THRESHOLD = 4.4;
+
+  // Whether a continent map brightness (0-255) counts as ocean
+  private static final boolean[] OCEAN_BRIGHTNESS = new boolean[256];
+
+  static {
+    for (int brightness = 0; brightness < 256; brightness++) {
+      double continentValue = (brightness / 255.0) * 10.0;
+      OCEAN_BRIGHTNESS[brightness] = continentValue <= CONTINENT_THRESHOLD;
+    }
+  }
+
   public PNGContinentNoise(int horizontalWorldScale, int verticalWorldScale) {
     super(
       horizontalWorldScale,
@@ -13,6 +27,13 @@ public class PNGContinentNoise extends BasePNGNoise {
     );
   }
 
+  /**
+   * Whether a pixel of the brightness plane is ocean, the rule the distance maps are built with.
+   */
+  public static boolean isOcean(int brightness) {
+    return OCEAN_BRIGHTNESS[brightness];
+  }
+
   @Override
   protected double transformBrightness(double brightness) {
     return (brightness / 255.0) * 10.0;
@@ -19,9 +19,31 @@ public class PNGHotspotsNoise extends BasePNGNoise {
   }
 
   public byte getHotSpotAge(double x, double z) {
-    double[] imageCoords = worldToImage(x, z);
-    double brightness = sampleBrightness(imageCoords[0], imageCoords[1]);
+    return toHotSpotAge(sampleBrightness(toImageX(x), toImageZ(z)));
+  }
+
+  /**
+   * Batch version of {@link #getHotSpotAge} for a grid rectangle, see
+   * {@link #sampleBrightness(int, int, int, int, double[])} for the layout of {@code out}.
+   */
+  public void getHotSpotAges(
+    int minX,
+    int minZ,
+    int sizeX,
+    int sizeZ,
+    byte[] out
+  ) {
+    double[] samples = new double[sizeX * sizeZ];
+    sampleBrightness(minX, minZ, sizeX, sizeZ, samples);
+    for (int i = 0; i < samples.length; i++) {
+      out[i] = toHotSpotAge(samples[i]);
+    }
+  }
 
+  /**
+   * Hotspot age for a sampled brightness, like {@link #getHotSpotAge}.
+   */
+  public static byte toHotSpotAge(double brightness) {
     if (brightness <= 32.0) {
       return 0;
     } else if (brightness <= 95.5) {
@@ -1,7 +1,6 @@
 package net.yazloysasha.tfcrealworld.world.noise;
 
 import com.mojang.logging.LogUtils;
-import java.awt.image.BufferedImage;
 import java.util.HashMap;
 import java.util.Map;
 import net.dries007.tfc.util.climate.KoppenClimateClassification;
@@ -10,6 +9,7 @@ import org.slf4j.Logger;
 /**
  * Noise generator that reads Köppen climate classification from a PNG map.
  * The map uses indexed color with fixed colors matching KOPPEN_COLORS from maps.py.
+ * Pixels are converted to climate ordinals once at load, so sampling is a plain plane read.
  * Returns the Köppen climate code as a string (e.g., "AF", "BWH", etc.).
  */
 public class PNGKoppenNoise {
@@ -56,11 +56,15 @@ public class PNGKoppenNoise {
     COLOR_TO_CLIMATE.put(rgb(80, 80, 80), KoppenClimateClassification.EF);
   }
 
+  private static final KoppenClimateClassification[] CLIMATES =
+    KoppenClimateClassification.values();
+
   private static int rgb(int r, int g, int b) {
     return (r << 16) | (g << 8) | b;
   }
 
-  private final int[] pixels;
+  // Climate ordinal for each pixel, quantised once when the map is loaded
+  private final MapPlane climates;
   private final int width;
   private final int height;
   private final double centerX;
@@ -82,18 +86,15 @@ public class PNGKoppenNoise {
       worldRadiusBlocksZ /
       (double) net.dries007.tfc.world.region.Units.GRID_WIDTH_IN_BLOCK;
 
-    BufferedImage image = BasePNGNoise.loadImageFromCache("koppen");
-    if (image == null) {
+    this.climates = MapPlane.load("koppen", "climates", new ClimateQuantiser());
+    if (climates == null) {
       throw new RuntimeException(
         "Failed to load koppen map. Map file is required when generating climate from Köppen map."
       );
     }
 
-    this.width = image.getWidth();
-    this.height = image.getHeight();
-    this.pixels = new int[width * height];
-
-    image.getRGB(0, 0, width, height, pixels, 0, width);
+    this.width = climates.getWidth();
+    this.height = climates.getHeight();
 
     this.centerX = width / 2.0;
     this.centerZ = height / 2.0;
@@ -117,8 +118,7 @@ public class PNGKoppenNoise {
    * Uses bilinear interpolation to sample from the map.
    */
   public KoppenClimateClassification getClimate(double x, double z) {
-    double[] imageCoords = worldToImage(x, z);
-    return sampleClimate(imageCoords[0], imageCoords[1]);
+    return sampleClimate(toImageX(x), toImageZ(z));
   }
 
   /**
@@ -129,84 +129,61 @@ public class PNGKoppenNoise {
     double x,
     double z
   ) {
-    double[] imageCoords = worldToImage(x, z);
-    return sampleClimateInterpolation(imageCoords[0], imageCoords[1]);
+    return getClimateInterpolation(x, z, new ClimateInterpolationResult());
+  }
+
+  /**
+   * Same as {@link #getClimateInterpolation(double, double)}, but writes into
+   * a caller-owned result so that sampling does not allocate.
+   */
+  public ClimateInterpolationResult getClimateInterpolation(
+    double x,
+    double z,
+    ClimateInterpolationResult out
+  ) {
+    return sampleClimateInterpolation(toImageX(x), toImageZ(z), out);
   }
 
   /**
    * Result of climate interpolation with four corner climates and weights.
+   * Mutable so that a single instance can be reused between samples.
    */
   public static class ClimateInterpolationResult {
 
-    public final KoppenClimateClassification climate00;
-    public final KoppenClimateClassification climate10;
-    public final KoppenClimateClassification climate01;
-    public final KoppenClimateClassification climate11;
-    public final double weight00;
-    public final double weight10;
-    public final double weight01;
-    public final double weight11;
-
-    public ClimateInterpolationResult(
-      KoppenClimateClassification climate00,
-      KoppenClimateClassification climate10,
-      KoppenClimateClassification climate01,
-      KoppenClimateClassification climate11,
-      double weight00,
-      double weight10,
-      double weight01,
-      double weight11
-    ) {
-      this.climate00 = climate00;
-      this.climate10 = climate10;
-      this.climate01 = climate01;
-      this.climate11 = climate11;
-      this.weight00 = weight00;
-      this.weight10 = weight10;
-      this.weight01 = weight01;
-      this.weight11 = weight11;
-    }
+    public KoppenClimateClassification climate00;
+    public KoppenClimateClassification climate10;
+    public KoppenClimateClassification climate01;
+    public KoppenClimateClassification climate11;
+    public double weight00;
+    public double weight10;
+    public double weight01;
+    public double weight11;
   }
 
   private ClimateInterpolationResult sampleClimateInterpolation(
     double imageX,
-    double imageZ
+    double imageZ,
+    ClimateInterpolationResult out
   ) {
     int x0 = (int) Math.floor(imageX);
     int z0 = (int) Math.floor(imageZ);
     int x1 = Math.min(x0 + 1, width - 1);
     int z1 = Math.min(z0 + 1, height - 1);
 
-    KoppenClimateClassification climate00 = getClimateFromPixel(
-      pixels[z0 * width + x0]
-    );
-    KoppenClimateClassification climate10 = getClimateFromPixel(
-      pixels[z0 * width + x1]
-    );
-    KoppenClimateClassification climate01 = getClimateFromPixel(
-      pixels[z1 * width + x0]
-    );
-    KoppenClimateClassification climate11 = getClimateFromPixel(
-      pixels[z1 * width + x1]
-    );
+    out.climate00 = climateAt(x0, z0);
+    out.climate10 = climateAt(x1, z0);
+    out.climate01 = climateAt(x0, z1);
+    out.climate11 = climateAt(x1, z1);
+
     double fx = imageX - x0;
     double fz = imageZ - z0;
 
-    double weight00 = (1.0 - fx) * (1.0 - fz);
-    double weight10 = fx * (1.0 - fz);
-    double weight01 = (1.0 - fx) * fz;
-    double weight11 = fx * fz;
-
-    return new ClimateInterpolationResult(
-      climate00,
-      climate10,
-      climate01,
-      climate11,
-      weight00,
-      weight10,
-      weight01,
-      weight11
-    );
+    out.weight00 = (1.0 - fx) * (1.0 - fz);
+    out.weight10 = fx * (1.0 - fz);
+    out.weight01 = (1.0 - fx) * fz;
+    out.weight11 = fx * fz;
+
+    return out;
   }
 
   private KoppenClimateClassification sampleClimate(
@@ -218,18 +195,10 @@ public class PNGKoppenNoise {
     int x1 = Math.min(x0 + 1, width - 1);
     int z1 = Math.min(z0 + 1, height - 1);
 
-    KoppenClimateClassification climate00 = getClimateFromPixel(
-      pixels[z0 * width + x0]
-    );
-    KoppenClimateClassification climate10 = getClimateFromPixel(
-      pixels[z0 * width + x1]
-    );
-    KoppenClimateClassification climate01 = getClimateFromPixel(
-      pixels[z1 * width + x0]
-    );
-    KoppenClimateClassification climate11 = getClimateFromPixel(
-      pixels[z1 * width + x1]
-    );
+    KoppenClimateClassification climate00 = climateAt(x0, z0);
+    KoppenClimateClassification climate10 = climateAt(x1, z0);
+    KoppenClimateClassification climate01 = climateAt(x0, z1);
+    KoppenClimateClassification climate11 = climateAt(x1, z1);
 
     if (
       climate00 == climate10 && climate00 == climate01 && climate00 == climate11
@@ -250,7 +219,46 @@ public class PNGKoppenNoise {
     }
   }
 
-  private KoppenClimateClassification getClimateFromPixel(int rgb) {
+  private KoppenClimateClassification climateAt(int x, int z) {
+    return CLIMATES[climates.get(x, z)];
+  }
+
+  /**
+   * Converts the map into climate ordinals, matching anti-aliased pixels to the nearest palette colour.
+   */
+  private static class ClimateQuantiser implements MapPlane.RowConverter {
+
+    @Override
+    public void convert(int[] rgb, byte[] out, int width) {
+      int lastColor = rgb[0] & 0xFFFFFF;
+      byte lastClimate = (byte) getClimateFromPixel(lastColor).ordinal();
+      for (int x = 0; x < width; x++) {
+        int color = rgb[x] & 0xFFFFFF;
+        if (color != lastColor) {
+          lastColor = color;
+          lastClimate = (byte) getClimateFromPixel(color).ordinal();
+        }
+        out[x] = lastClimate;
+      }
+    }
+
+    /**
+     * Depends on the palette and on the ordinals of the climate classification.
+     */
+    @Override
+    public int fingerprint() {
+      int fingerprint = CLIMATES.length;
+      for (Map.Entry<
+        Integer,
+        KoppenClimateClassification
+      > entry : COLOR_TO_CLIMATE.entrySet()) {
+        fingerprint += entry.getKey() * 31 + entry.getValue().ordinal();
+      }
+      return fingerprint;
+    }
+  }
+
+  private static KoppenClimateClassification getClimateFromPixel(int rgb) {
     int r = (rgb >> 16) & 0xFF;
     int g = (rgb >> 8) & 0xFF;
     int b = rgb & 0xFF;
@@ -284,17 +292,14 @@ public class PNGKoppenNoise {
     return closestClimate;
   }
 
-  private double[] worldToImage(double x, double z) {
+  private double toImageX(double x) {
     double clampedX = Math.clamp(x, -worldRadiusGridX, worldRadiusGridX);
-    double clampedZ = Math.clamp(z, -worldRadiusGridZ, worldRadiusGridZ);
-
-    double imageX = centerX + clampedX * scaleX;
-    double imageZ = centerZ + clampedZ * scaleZ;
-
-    imageX = Math.clamp(imageX, 0, width - 1);
-    imageZ = Math.clamp(imageZ, 0, height - 1);
+    return Math.clamp(centerX + clampedX * scaleX, 0, width - 1);
+  }
 
-    return new double[] { imageX, imageZ };
+  private double toImageZ(double z) {
+    double clampedZ = Math.clamp(z, -worldRadiusGridZ, worldRadiusGridZ);
+    return Math.clamp(centerZ + clampedZ * scaleZ, 0, height - 1);
   }
 
   public int getWidth() {
@@ -304,4 +309,27 @@ public class PNGKoppenNoise {
   public int getHeight() {
     return height;
   }
+
+  public int getWorldRadiusBlocksX() {
+    return worldRadiusBlocksX;
+  }
+
+  public int getWorldRadiusBlocksZ() {
+    return worldRadiusBlocksZ;
+  }
+
+  public double getWorldRadiusGridX() {
+    return worldRadiusGridX;
+  }
+
+  public double getWorldRadiusGridZ() {
+    return worldRadiusGridZ;
+  }
+
+  /**
+   * Changes whenever the palette or the climate ordinals change, like the quantised climate plane.
+   */
+  public static int getPaletteFingerprint() {
+    return new ClimateQuantiser().fingerprint();
+  }
 }
@@ -0,0 +1,309 @@
+package net.yazloysasha.tfcrealworld.world.noise;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.WritableRaster;
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+import javax.imageio.ImageTypeSpecifier;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Decodes a non-interlaced PNG row by row, in a single forward pass over the file.
+ *
+ * ImageIO can only read a band of a PNG by inflating the image data from its start, so reading
+ * a large map band by band takes time quadratic in the number of bands. This decoder inflates
+ * the image data once and unfilters one row at a time. The samples of each row are converted
+ * to ARGB through a one-row image of the type ImageIO decodes the map into, so the colours are
+ * exactly those ImageIO returns.
+ */
+final class PngRowDecoder implements Closeable {
+
+  private static final long SIGNATURE = 0x89504E470D0A1A0AL;
+  private static final int IHDR = 0x49484452;
+  private static final int IDAT = 0x49444154;
+  private static final int IEND = 0x49454E44;
+
+  private final DataInputStream file;
+  private final Inflater inflater = new Inflater();
+  private final InputStream imageData;
+  private final int width;
+  private final int bitDepth;
+  // Distance in bytes to the same sample of the previous pixel, at least 1
+  private final int filterStride;
+  private final int[] samples;
+  private final BufferedImage rowImage;
+  private final WritableRaster rowRaster;
+
+  private byte[] previous;
+  private byte[] current;
+  private int chunkRemaining;
+  private boolean imageDataEnded = false;
+
+  private PngRowDecoder(
+    DataInputStream file,
+    int firstChunkLength,
+    int width,
+    int bitDepth,
+    int channels,
+    ImageTypeSpecifier type
+  ) {
+    this.file = file;
+    this.chunkRemaining = firstChunkLength;
+    this.imageData = new InflaterInputStream(
+      new ImageDataStream(),
+      inflater,
+      1 << 16
+    );
+    this.width = width;
+    this.bitDepth = bitDepth;
+    this.filterStride = Math.max(1, channels * bitDepth / 8);
+
+    int rowBytes = (int) (((long) width * channels * bitDepth + 7) / 8);
+    this.previous = new byte[rowBytes];
+    this.current = new byte[rowBytes];
+    this.samples = new int[width * channels];
+    this.rowImage = type.createBufferedImage(width, 1);
+    this.rowRaster = rowImage.getRaster();
+  }
+
+  /**
+   * Opens the PNG and reads up to its first image data. Returns null if the file is not a PNG,
+   * is interlaced, or its samples do not match the bands of the given image type.
+   */
+  @Nullable
+  static PngRowDecoder open(Path path, ImageTypeSpecifier type)
+    throws IOException {
+    DataInputStream file = new DataInputStream(
+      new BufferedInputStream(Files.newInputStream(path), 1 << 16)
+    );
+    PngRowDecoder decoder = null;
+    try {
+      decoder = readHeader(file, type);
+      return decoder;
+    } finally {
+      if (decoder == null) {
+        file.close();
+      }
+    }
+  }
+
+  @Nullable
+  private static PngRowDecoder readHeader(
+    DataInputStream file,
+    ImageTypeSpecifier type
+  ) throws IOException {
+    if (file.readLong() != SIGNATURE) {
+      return null;
+    }
+    if (file.readInt() != 13 || file.readInt() != IHDR) {
+      return null;
+    }
+
+    int width = file.readInt();
+    file.readInt(); // height, known from the reader
+    int bitDepth = file.readUnsignedByte();
+    int colorType = file.readUnsignedByte();
+    file.readUnsignedByte(); // compression, always deflate
+    file.readUnsignedByte(); // filter method, always adaptive
+    int interlace = file.readUnsignedByte();
+    file.readInt(); // CRC
+
+    int channels;
+    switch (colorType) {
+      case 0:
+      case 3:
+        channels = 1;
+        break;
+      case 2:
+        channels = 3;
+        break;
+      case 4:
+        channels = 2;
+        break;
+      case 6:
+        channels = 4;
+        break;
+      default:
+        return null;
+    }
+    if (interlace != 0 || type.getSampleModel().getNumBands() != channels) {
+      return null;
+    }
+
+    // Palette and transparency only matter to the color model of the type
+    while (true) {
+      int length = file.readInt();
+      int chunkType = file.readInt();
+      if (chunkType == IDAT) {
+        return new PngRowDecoder(
+          file,
+          length,
+          width,
+          bitDepth,
+          channels,
+          type
+        );
+      }
+      if (chunkType == IEND) {
+        return null;
+      }
+      file.skipNBytes(length + 4L);
+    }
+  }
+
+  /**
+   * Decodes the next row into {@code rgb} as ARGB pixels.
+   */
+  void readRow(int[] rgb) throws IOException {
+    byte[] swap = previous;
+    previous = current;
+    current = swap;
+
+    int filter = imageData.read();
+    if (filter < 0) {
+      throw new EOFException("PNG image data ended early");
+    }
+    if (imageData.readNBytes(current, 0, current.length) < current.length) {
+      throw new EOFException("PNG image data ended early");
+    }
+    unfilter(filter);
+    unpack();
+
+    rowRaster.setPixels(0, 0, width, 1, samples);
+    rowImage.getRGB(0, 0, width, 1, rgb, 0, width);
+  }
+
+  private void unfilter(int filter) throws IOException {
+    byte[] row = current;
+    byte[] above = previous;
+    int stride = filterStride;
+    switch (filter) {
+      case 0:
+        break;
+      case 1:
+        for (int i = stride; i < row.length; i++) {
+          row[i] += row[i - stride];
+        }
+        break;
+      case 2:
+        for (int i = 0; i < row.length; i++) {
+          row[i] += above[i];
+        }
+        break;
+      case 3:
+        for (int i = 0; i < row.length; i++) {
+          int left = i >= stride ? row[i - stride] & 0xFF : 0;
+          row[i] += (byte) ((left + (above[i] & 0xFF)) >>> 1);
+        }
+        break;
+      case 4:
+        for (int i = 0; i < row.length; i++) {
+          int left = i >= stride ? row[i - stride] & 0xFF : 0;
+          int up = above[i] & 0xFF;
+          int upLeft = i >= stride ? above[i - stride] & 0xFF : 0;
+          row[i] += (byte) paeth(left, up, upLeft);
+        }
+        break;
+      default:
+        throw new IOException("Unknown PNG filter type: " + filter);
+    }
+  }
+
+  private static int paeth(int left, int up, int upLeft) {
+    int estimate = left + up - upLeft;
+    int toLeft = Math.abs(estimate - left);
+    int toUp = Math.abs(estimate - up);
+    int toUpLeft = Math.abs(estimate - upLeft);
+    if (toLeft <= toUp && toLeft <= toUpLeft) {
+      return left;
+    }
+    return toUp <= toUpLeft ? up : upLeft;
+  }
+
+  private void unpack() {
+    byte[] row = current;
+    int count = samples.length;
+    if (bitDepth == 8) {
+      for (int i = 0; i < count; i++) {
+        samples[i] = row[i] & 0xFF;
+      }
+    } else if (bitDepth == 16) {
+      for (int i = 0; i < count; i++) {
+        samples[i] = ((row[2 * i] & 0xFF) << 8) | (row[2 * i + 1] & 0xFF);
+      }
+    } else {
+      // 1, 2 and 4 bit samples only exist with one channel, high bits first
+      int mask = (1 << bitDepth) - 1;
+      for (int i = 0; i < count; i++) {
+        int bit = i * bitDepth;
+        int shift = 8 - bitDepth - (bit & 7);
+        samples[i] = (row[bit >>> 3] >>> shift) & mask;
+      }
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    inflater.end();
+    file.close();
+  }
+
+  /**
+   * The contents of consecutive IDAT chunks, without their headers and CRCs.
+   */
+  private final class ImageDataStream extends InputStream {
+
+    @Override
+    public int read() throws IOException {
+      if (!nextData()) {
+        return -1;
+      }
+      chunkRemaining--;
+      return file.readUnsignedByte();
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+      if (length == 0) {
+        return 0;
+      }
+      if (!nextData()) {
+        return -1;
+      }
+      int read = file.read(
+        buffer,
+        offset,
+        Math.min(length, chunkRemaining)
+      );
+      if (read < 0) {
+        throw new EOFException("PNG chunk ended early");
+      }
+      chunkRemaining -= read;
+      return read;
+    }
+
+    private boolean nextData() throws IOException {
+      while (chunkRemaining == 0) {
+        if (imageDataEnded) {
+          return false;
+        }
+        file.readInt(); // CRC of the previous chunk
+        int length = file.readInt();
+        if (file.readInt() != IDAT) {
+          imageDataEnded = true;
+          return false;
+        }
+        chunkRemaining = length;
+      }
+      return true;
+    }
+  }
+}
@@ -0,0 +1,40 @@
+package net.yazloysasha.tfcrealworld.world.noise;
+
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * Image coordinates of consecutive grid cells along one axis, precomputed for bilinear sampling.
+ * Batch sampling of a rectangle builds one axis for the columns and one for the rows, so the
+ * clamping and flooring is done once per row and column instead of once per cell.
+ */
+public final class SampleAxis {
+
+  public final int[] lower;
+  public final int[] upper;
+  public final double[] fraction;
+
+  /**
+   * @param min first grid coordinate
+   * @param size number of grid cells
+   * @param toImage transforms a grid coordinate to an image coordinate in [0, limit - 1]
+   * @param limit image size along the axis
+   */
+  public SampleAxis(
+    int min,
+    int size,
+    DoubleUnaryOperator toImage,
+    int limit
+  ) {
+    this.lower = new int[size];
+    this.upper = new int[size];
+    this.fraction = new double[size];
+
+    for (int i = 0; i < size; i++) {
+      double image = toImage.applyAsDouble(min + i);
+      int floor = (int) Math.floor(image);
+      lower[i] = floor;
+      upper[i] = Math.min(floor + 1, limit - 1);
+      fraction[i] = image - floor;
+    }
+  }
+}
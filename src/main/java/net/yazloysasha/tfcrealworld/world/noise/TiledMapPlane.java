@@ -0,0 +1,286 @@
+package net.yazloysasha.tfcrealworld.world.noise;
+
+import com.mojang.logging.LogUtils;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HexFormat;
+import net.yazloysasha.tfcrealworld.util.DerivedMapCache;
+import net.yazloysasha.tfcrealworld.util.MapPathHelper;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+
+/**
+ * Map plane stored as 256x256 tiles in a memory-mapped file.
+ *
+ * The file is written next to the map as {@code <map>.<plane>.<hash>.tiles} the first time the
+ * plane is loaded and reused until the map changes. The name holds the start of the map hash,
+ * so an edited map is written to a new file instead of replacing one a previous world may
+ * still have mapped, and the files of older versions of the map are deleted once it is
+ * written. Each tile is a contiguous 64 KiB block, so a
+ * bilinear sample touches at most four pages no matter how wide the map is. The file is mapped
+ * in 1 GiB segments because a single mapping is limited to 2 GiB.
+ */
+final class TiledMapPlane extends MapPlane {
+
+  private static final Logger LOGGER = LogUtils.getLogger();
+
+  private static final int TILE_SHIFT = 8;
+  private static final int TILE_SIZE = 1 << TILE_SHIFT;
+  private static final int TILE_MASK = TILE_SIZE - 1;
+  private static final int TILE_BYTES_SHIFT = TILE_SHIFT * 2;
+  private static final int TILE_BYTES = 1 << TILE_BYTES_SHIFT;
+
+  private static final int SEGMENT_SHIFT = 30;
+  private static final long SEGMENT_MASK = (1L << SEGMENT_SHIFT) - 1;
+
+  private static final int NAME_HASH_BYTES = 8;
+
+  private final int tilesX;
+  private final MappedByteBuffer[] segments;
+
+  private TiledMapPlane(int width, int height, MappedByteBuffer[] segments) {
+    super(width, height);
+    this.tilesX = tilesAlong(width);
+    this.segments = segments;
+  }
+
+  @Override
+  public int get(int x, int z) {
+    return getAtOffset(offsetOf(x, z));
+  }
+
+  /**
+   * Splits the index with a single division and addresses the tile directly,
+   * the distance transforms call this once per pixel.
+   */
+  @Override
+  public int getAt(int index) {
+    int z = index / width;
+    return getAtOffset(offsetOf(index - z * width, z));
+  }
+
+  private long offsetOf(int x, int z) {
+    long tile = (long) (z >> TILE_SHIFT) * tilesX + (x >> TILE_SHIFT);
+    return (
+      (tile << TILE_BYTES_SHIFT) |
+      ((z & TILE_MASK) << TILE_SHIFT) |
+      (x & TILE_MASK)
+    );
+  }
+
+  private int getAtOffset(long offset) {
+    return (
+      segments[(int) (offset >>> SEGMENT_SHIFT)].get(
+          (int) (offset & SEGMENT_MASK)
+        ) &
+      0xFF
+    );
+  }
+
+  static Path getTilesPath(String mapName, String planeName, byte[] hash) {
+    return MapPathHelper.getMapsDirectory().resolve(
+      mapName +
+      "." +
+      planeName +
+      "." +
+      HexFormat.of().formatHex(hash, 0, NAME_HASH_BYTES) +
+      ".tiles"
+    );
+  }
+
+  /**
+   * Maps the tile file of the plane, writing it first if it is missing or stale.
+   */
+  static TiledMapPlane open(
+    String mapName,
+    String planeName,
+    RowConverter converter,
+    int width,
+    int height
+  ) throws IOException {
+    byte[] hash = DerivedMapCache.getMapHash(mapName);
+    if (hash == null) {
+      throw new IOException("Can not hash " + mapName + " map");
+    }
+
+    Path path = getTilesPath(mapName, planeName, hash);
+    int[] parameters = { width, height, TILE_SIZE, converter.fingerprint() };
+    long length =
+      (long) tilesAlong(width) * tilesAlong(height) * TILE_BYTES;
+
+    TiledMapPlane plane = tryMap(path, hash, parameters, length, width, height);
+    if (plane != null) {
+      LOGGER.info("Mapped {} plane of {} map from: {}", planeName, mapName, path);
+      return plane;
+    }
+
+    long start = System.nanoTime();
+    write(mapName, path, hash, parameters, converter, width, height);
+    LOGGER.info(
+      "Wrote {} plane of {} map to {} in {} ms",
+      planeName,
+      mapName,
+      path,
+      (System.nanoTime() - start) / 1_000_000
+    );
+    deleteOtherVersions(mapName, planeName, path);
+
+    plane = tryMap(path, hash, parameters, length, width, height);
+    if (plane == null) {
+      throw new IOException("Tile file was not written correctly: " + path);
+    }
+    return plane;
+  }
+
+  @Nullable
+  private static TiledMapPlane tryMap(
+    Path path,
+    byte[] hash,
+    int[] parameters,
+    long length,
+    int width,
+    int height
+  ) throws IOException {
+    if (!Files.isRegularFile(path)) {
+      return null;
+    }
+
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      int headerSize = DerivedMapCache.headerSize(parameters);
+      if (channel.size() != headerSize + length) {
+        return null;
+      }
+
+      ByteBuffer header = ByteBuffer.allocate(headerSize);
+      while (header.hasRemaining()) {
+        if (channel.read(header, header.position()) < 0) {
+          return null;
+        }
+      }
+      header.flip();
+      if (!DerivedMapCache.readHeader(header, hash, parameters, length)) {
+        LOGGER.info("Ignoring stale tile file: {}", path);
+        return null;
+      }
+
+      int segmentCount = (int) ((length + SEGMENT_MASK) >>> SEGMENT_SHIFT);
+      MappedByteBuffer[] segments = new MappedByteBuffer[segmentCount];
+      for (int i = 0; i < segmentCount; i++) {
+        long offset = (long) i << SEGMENT_SHIFT;
+        segments[i] = channel.map(
+          FileChannel.MapMode.READ_ONLY,
+          headerSize + offset,
+          Math.min(1L << SEGMENT_SHIFT, length - offset)
+        );
+      }
+      return new TiledMapPlane(width, height, segments);
+    }
+  }
+
+  /**
+   * Decodes the map row by row and writes every 256 rows as a row of tiles.
+   * Pixels of partial tiles past the edge of the map are left zero.
+   */
+  private static void write(
+    String mapName,
+    Path path,
+    byte[] hash,
+    int[] parameters,
+    RowConverter converter,
+    int width,
+    int height
+  ) throws IOException {
+    Path tempPath = DerivedMapCache.getTempPath(path);
+    int tilesX = tilesAlong(width);
+    int headerSize = DerivedMapCache.headerSize(parameters);
+
+    try {
+      try (
+        FileChannel channel = FileChannel.open(
+          tempPath,
+          StandardOpenOption.CREATE,
+          StandardOpenOption.TRUNCATE_EXISTING,
+          StandardOpenOption.WRITE
+        )
+      ) {
+        long length =
+          (long) tilesX * tilesAlong(height) * TILE_BYTES;
+        DerivedMapCache.writeHeader(channel, hash, parameters, length);
+
+        // One row of tiles, flushed whenever its last pixel row has been decoded
+        byte[][] tileRow = new byte[tilesX][TILE_BYTES];
+        MapPlane.decode(
+          MapPathHelper.getMapPath(mapName),
+          converter,
+          (z, row) -> {
+            int tileZ = z >> TILE_SHIFT;
+            int rowOffset = (z & TILE_MASK) << TILE_SHIFT;
+            for (int tileX = 0; tileX < tilesX; tileX++) {
+              int x = tileX << TILE_SHIFT;
+              System.arraycopy(
+                row,
+                x,
+                tileRow[tileX],
+                rowOffset,
+                Math.min(TILE_SIZE, width - x)
+              );
+            }
+
+            if ((z & TILE_MASK) == TILE_MASK || z == height - 1) {
+              for (int tileX = 0; tileX < tilesX; tileX++) {
+                long tile = (long) tileZ * tilesX + tileX;
+                ByteBuffer buffer = ByteBuffer.wrap(tileRow[tileX]);
+                long position = headerSize + (tile << TILE_BYTES_SHIFT);
+                while (buffer.hasRemaining()) {
+                  position += channel.write(buffer, position);
+                }
+                Arrays.fill(tileRow[tileX], (byte) 0);
+              }
+            }
+          }
+        );
+      }
+      DerivedMapCache.moveIntoPlace(tempPath, path);
+    } catch (IOException e) {
+      DerivedMapCache.deleteQuietly(tempPath);
+      throw e;
+    }
+  }
+
+  /**
+   * Deletes the tile files of the plane written for other versions of the map. A file still
+   * mapped by a previous world can not be deleted on some systems and is left for the next write.
+   */
+  private static void deleteOtherVersions(
+    String mapName,
+    String planeName,
+    Path keep
+  ) {
+    String glob = mapName + "." + planeName + ".{*.tiles,tiles}";
+    try (
+      DirectoryStream<Path> files = Files.newDirectoryStream(
+        keep.getParent(),
+        glob
+      )
+    ) {
+      for (Path file : files) {
+        if (!file.equals(keep)) {
+          DerivedMapCache.deleteQuietly(file);
+        }
+      }
+    } catch (IOException e) {
+      LOGGER.warn("Failed to delete old {} tile files", mapName, e);
+    }
+  }
+
+  private static int tilesAlong(int pixels) {
+    return (pixels + TILE_MASK) >> TILE_SHIFT;
+  }
+}
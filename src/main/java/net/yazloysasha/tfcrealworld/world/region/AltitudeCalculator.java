@@ -2,8 +2,7 @@ package net.yazloysasha.tfcrealworld.world.region;
 
 import net.dries007.tfc.world.region.Region;
 import net.dries007.tfc.world.region.RegionGenerator;
-import net.yazloysasha.tfcrealworld.config.TFCRealWorldConfig;
-import net.yazloysasha.tfcrealworld.util.AltitudeNoiseRegistry;
+import net.yazloysasha.tfcrealworld.util.RegionGeneratorConfig;
 import net.yazloysasha.tfcrealworld.world.noise.PNGAltitudeNoise;
 
 /**
@@ -15,27 +14,23 @@ public class AltitudeCalculator {
     Region region,
     RegionGenerator generator
   ) {
-    if (!TFCRealWorldConfig.getAltitudeFromMap()) {
+    if (!RegionGeneratorConfig.get(generator).altitudeFromMap()) {
       return;
     }
 
-    PNGAltitudeNoise altitudeNoise = AltitudeNoiseRegistry.get(generator);
-    if (altitudeNoise == null) {
+    RegionMapAnnotator.MapAnnotations annotations =
+      RegionMapAnnotator.annotations(region, generator);
+    if (annotations == null || annotations.altitudes == null) {
       return;
     }
 
     for (final var point : region.points()) {
       if (point != null) {
+        int altitude = annotations.altitudes[annotations.grid.indexOf(point)];
         if (point.land()) {
-          point.baseLandHeight = altitudeNoise.getBaseLandHeight(
-            (double) point.x,
-            (double) point.z
-          );
+          point.baseLandHeight = PNGAltitudeNoise.landHeight(altitude);
         } else {
-          point.baseOceanDepth = altitudeNoise.getBaseOceanDepth(
-            (double) point.x,
-            (double) point.z
-          );
+          point.baseOceanDepth = PNGAltitudeNoise.oceanDepth(altitude);
         }
       }
     }
@@ -1,6 +1,9 @@
 package net.yazloysasha.tfcrealworld.world.region;
 
+import net.yazloysasha.tfcrealworld.util.DerivedMapCache;
+import net.yazloysasha.tfcrealworld.world.noise.MapPlane;
 import net.yazloysasha.tfcrealworld.world.noise.PNGContinentNoise;
+import net.yazloysasha.tfcrealworld.world.noise.SampleAxis;
 
 /**
  * Base class for distance caches that share common functionality.
@@ -8,7 +11,10 @@ import net.yazloysasha.tfcrealworld.world.noise.PNGContinentNoise;
  */
 abstract class BaseDistanceCache {
 
-  protected static final double CONTINENT_THRESHOLD = 4.4;
+  // Version of the code deriving the distance maps, part of the on-disk cache key. Bump it when
+  // PNGContinentNoise.isOcean, the transforms, the west coast sweep or the settled distance
+  // change.
+  private static final int DERIVATION_VERSION = 1;
 
   protected final byte[] distanceMap;
   protected final int width;
@@ -20,8 +26,14 @@ abstract class BaseDistanceCache {
   protected final double worldRadiusGridX;
   protected final double worldRadiusGridZ;
   protected final PNGContinentNoise continentNoise;
-
-  protected BaseDistanceCache(PNGContinentNoise continentNoise) {
+  protected final MapPlane brightnessPlane;
+  // Whether distances are spread with the EuclideanDistanceTransform instead of a BFS
+  protected final boolean euclidean;
+
+  protected BaseDistanceCache(
+    PNGContinentNoise continentNoise,
+    boolean euclidean
+  ) {
     this.continentNoise = continentNoise;
     this.width = continentNoise.getWidth();
     this.height = continentNoise.getHeight();
@@ -31,63 +43,72 @@ abstract class BaseDistanceCache {
     this.scaleZ = continentNoise.getScaleZ();
     this.worldRadiusGridX = continentNoise.getWorldRadiusGridX();
     this.worldRadiusGridZ = continentNoise.getWorldRadiusGridZ();
+    this.brightnessPlane = continentNoise.getBrightnessPlane();
+    this.euclidean = euclidean;
 
     this.distanceMap = new byte[width * height];
   }
 
   /**
-   * Transforms world coordinates to image coordinates and performs bilinear interpolation.
-   * Returns the four corner indices and interpolation factors.
+   * Transforms a world grid X coordinate to an image X coordinate for bilinear interpolation.
+   * Coordinates are transformed per axis so lookups do not allocate.
    */
-  protected InterpolationResult getInterpolationData(int gridX, int gridZ) {
+  protected double toImageX(int gridX) {
     double clampedX = Math.clamp(gridX, -worldRadiusGridX, worldRadiusGridX);
-    double clampedZ = Math.clamp(gridZ, -worldRadiusGridZ, worldRadiusGridZ);
+    return Math.clamp(centerX + clampedX * scaleX, 0, width - 1);
+  }
 
-    double imageX = centerX + clampedX * scaleX;
-    double imageZ = centerZ + clampedZ * scaleZ;
+  /**
+   * Transforms a world grid Z coordinate to an image Z coordinate for bilinear interpolation.
+   */
+  protected double toImageZ(int gridZ) {
+    double clampedZ = Math.clamp(gridZ, -worldRadiusGridZ, worldRadiusGridZ);
+    return Math.clamp(centerZ + clampedZ * scaleZ, 0, height - 1);
+  }
 
-    imageX = Math.clamp(imageX, 0, width - 1);
-    imageZ = Math.clamp(imageZ, 0, height - 1);
+  /**
+   * Loads the distance map from the on-disk cache, or calculates and saves it when the cache
+   * is missing or was built from a different continent map, world scale, distance transform
+   * or version of the derivation code.
+   *
+   * @return true if the distance map was loaded from disk
+   */
+  protected boolean loadOrCalculate(String planeName, Runnable calculate) {
+    String mapName = continentNoise.getMapName();
+    int[] parameters = {
+      DERIVATION_VERSION,
+      width,
+      height,
+      continentNoise.getWorldRadiusBlocksX(),
+      continentNoise.getWorldRadiusBlocksZ(),
+      euclidean ? 1 : 0,
+    };
+
+    if (DerivedMapCache.load(mapName, planeName, parameters, distanceMap)) {
+      return true;
+    }
 
-    int x0 = (int) Math.floor(imageX);
-    int z0 = (int) Math.floor(imageZ);
-    int x1 = Math.min(x0 + 1, width - 1);
-    int z1 = Math.min(z0 + 1, height - 1);
+    calculate.run();
+    DerivedMapCache.save(mapName, planeName, parameters, distanceMap);
+    return false;
+  }
 
-    double fx = imageX - x0;
-    double fz = imageZ - z0;
+  public SampleAxis columnAxis(int minX, int sizeX) {
+    return new SampleAxis(minX, sizeX, x -> toImageX((int) x), width);
+  }
 
-    return new InterpolationResult(x0, z0, x1, z1, fx, fz);
+  public SampleAxis rowAxis(int minZ, int sizeZ) {
+    return new SampleAxis(minZ, sizeZ, z -> toImageZ((int) z), height);
   }
 
   protected boolean isOceanPixel(int x, int z) {
     if (x < 0 || x >= width || z < 0 || z >= height) {
       return false;
     }
-    double brightness = continentNoise.getBrightness(x, z);
-    double continentValue = (brightness / 255.0) * 10.0;
-    return continentValue <= CONTINENT_THRESHOLD;
+    return isOceanPixel(z * width + x);
   }
 
-  /**
-   * Result of coordinate transformation for bilinear interpolation.
-   */
-  protected static class InterpolationResult {
-
-    final int x0;
-    final int z0;
-    final int x1;
-    final int z1;
-    final double fx;
-    final double fz;
-
-    InterpolationResult(int x0, int z0, int x1, int z1, double fx, double fz) {
-      this.x0 = x0;
-      this.z0 = z0;
-      this.x1 = x1;
-      this.z1 = z1;
-      this.fx = fx;
-      this.fz = fz;
-    }
+  protected boolean isOceanPixel(int index) {
+    return PNGContinentNoise.isOcean(brightnessPlane.getAt(index));
   }
 }
@@ -0,0 +1,40 @@
+package net.yazloysasha.tfcrealworld.world.region;
+
+import net.dries007.tfc.world.region.AnnotateBiomeAltitude;
+import net.dries007.tfc.world.region.Region;
+import net.dries007.tfc.world.region.RegionGenerator;
+import net.yazloysasha.tfcrealworld.util.RegionGeneratorConfig;
+
+/**
+ * Calculator for biome altitude based on the base land height from altitude map.
+ */
+public class BiomeAltitudeCalculator {
+
+  public static void calculateBiomeAltitude(
+    Region region,
+    RegionGenerator generator
+  ) {
+    if (!RegionGeneratorConfig.get(generator).altitudeFromMap()) {
+      return;
+    }
+
+    final int WIDTH = AnnotateBiomeAltitude.WIDTH;
+
+    for (final var point : region.points()) {
+      if (point != null && point.land()) {
+        final int baseLandHeight = Byte.toUnsignedInt(point.baseLandHeight);
+
+        if (baseLandHeight >= 16) {
+          point.setMountain();
+          point.biomeAltitude = (byte) (3 * WIDTH);
+        } else if (baseLandHeight >= 8) {
+          point.biomeAltitude = (byte) (2 * WIDTH);
+        } else if (baseLandHeight >= 3) {
+          point.biomeAltitude = (byte) WIDTH;
+        } else {
+          point.biomeAltitude = 0;
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,173 @@
+package net.yazloysasha.tfcrealworld.world.region;
+
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+import java.util.stream.IntStream;
+
+/**
+ * Exact Euclidean distance from every pixel of a map to the nearest source pixel, with the
+ * index of that source.
+ *
+ * This is the separable transform of Felzenszwalb and Huttenlocher. A first pass finds the
+ * nearest source in each column, and a second pass takes the lower envelope of the parabolas
+ * {@code (x - q)^2 + dz(q)^2} along each row. Both passes are linear in the number of pixels,
+ * and columns and rows are independent, so each pass runs on the common fork-join pool.
+ * Unlike the 8-neighbour BFS, diagonal steps count as {@code sqrt(2)}, not 1.
+ */
+public final class EuclideanDistanceTransform {
+
+  // Column offset of pixels which have no source in their column
+  private static final short NO_SOURCE = Short.MIN_VALUE;
+  private static final int COLUMN_BLOCK = 256;
+
+  @FunctionalInterface
+  public interface NearestSourceConsumer {
+    /**
+     * Called once for every pixel, concurrently for different rows.
+     * {@code sourceIndex} is -1 and {@code distance} is infinite if the map has no source.
+     */
+    void accept(int index, int sourceIndex, double distance);
+  }
+
+  private EuclideanDistanceTransform() {}
+
+  public static void compute(
+    int width,
+    int height,
+    IntPredicate isSource,
+    NearestSourceConsumer consumer
+  ) {
+    if (height > Short.MAX_VALUE) {
+      throw new IllegalArgumentException(
+        "Map is too tall for the distance transform: " + height + " pixels"
+      );
+    }
+
+    // Signed offset from each pixel to the nearest source in its column
+    short[] columnOffsets = new short[width * height];
+    int blocks = (width + COLUMN_BLOCK - 1) / COLUMN_BLOCK;
+    IntStream.range(0, blocks)
+      .parallel()
+      .forEach(block ->
+        nearestInColumns(
+          columnOffsets,
+          width,
+          height,
+          block * COLUMN_BLOCK,
+          Math.min((block + 1) * COLUMN_BLOCK, width),
+          isSource
+        )
+      );
+    IntStream.range(0, height)
+      .parallel()
+      .forEach(z -> nearestInRow(columnOffsets, width, z, consumer));
+  }
+
+  /**
+   * Both sweeps walk a block of columns row by row, so the map is read in memory order.
+   */
+  private static void nearestInColumns(
+    short[] columnOffsets,
+    int width,
+    int height,
+    int fromX,
+    int toX,
+    IntPredicate isSource
+  ) {
+    int[] lastSources = new int[toX - fromX];
+
+    // Downwards, nearest source above or at each pixel
+    Arrays.fill(lastSources, -1);
+    for (int z = 0; z < height; z++) {
+      int zWidth = z * width;
+      for (int x = fromX; x < toX; x++) {
+        int index = zWidth + x;
+        if (isSource.test(index)) {
+          lastSources[x - fromX] = z;
+        }
+        int lastSource = lastSources[x - fromX];
+        columnOffsets[index] = lastSource < 0
+          ? NO_SOURCE
+          : (short) (lastSource - z);
+      }
+    }
+
+    // Upwards, replace with the source below when it is strictly nearer
+    Arrays.fill(lastSources, -1);
+    for (int z = height - 1; z >= 0; z--) {
+      int zWidth = z * width;
+      for (int x = fromX; x < toX; x++) {
+        int index = zWidth + x;
+        short offset = columnOffsets[index];
+        int lastSource = lastSources[x - fromX];
+        if (offset == 0) {
+          lastSources[x - fromX] = z;
+        } else if (
+          lastSource >= 0 &&
+          (offset == NO_SOURCE || lastSource - z < -offset)
+        ) {
+          columnOffsets[index] = (short) (lastSource - z);
+        }
+      }
+    }
+  }
+
+  private static void nearestInRow(
+    short[] columnOffsets,
+    int width,
+    int z,
+    NearestSourceConsumer consumer
+  ) {
+    int zWidth = z * width;
+
+    // Lower envelope of the parabolas of the columns which have a source
+    int[] vertices = new int[width];
+    double[] boundaries = new double[width + 1];
+    int count = 0;
+    for (int q = 0; q < width; q++) {
+      short offset = columnOffsets[zWidth + q];
+      if (offset == NO_SOURCE) {
+        continue;
+      }
+      double value = (double) offset * offset + (double) q * q;
+      double boundary = Double.NEGATIVE_INFINITY;
+      while (count > 0) {
+        int vertex = vertices[count - 1];
+        short vertexOffset = columnOffsets[zWidth + vertex];
+        double vertexValue =
+          (double) vertexOffset * vertexOffset + (double) vertex * vertex;
+        boundary = (value - vertexValue) / (2.0 * (q - vertex));
+        if (boundary > boundaries[count - 1]) {
+          break;
+        }
+        count--;
+      }
+      vertices[count] = q;
+      boundaries[count] = count == 0 ? Double.NEGATIVE_INFINITY : boundary;
+      count++;
+    }
+
+    if (count == 0) {
+      for (int x = 0; x < width; x++) {
+        consumer.accept(zWidth + x, -1, Double.POSITIVE_INFINITY);
+      }
+      return;
+    }
+
+    boundaries[count] = Double.POSITIVE_INFINITY;
+    int k = 0;
+    for (int x = 0; x < width; x++) {
+      while (boundaries[k + 1] < x) {
+        k++;
+      }
+      int q = vertices[k];
+      int offset = columnOffsets[zWidth + q];
+      double dx = x - q;
+      consumer.accept(
+        zWidth + x,
+        (z + offset) * width + q,
+        Math.sqrt(dx * dx + (double) offset * offset)
+      );
+    }
+  }
+}
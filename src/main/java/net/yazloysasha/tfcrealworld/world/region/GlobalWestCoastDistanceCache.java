@@ -1,9 +1,12 @@
 package net.yazloysasha.tfcrealworld.world.region;
 
 import com.mojang.logging.LogUtils;
+import net.yazloysasha.tfcrealworld.util.WorldgenMetrics;
 import it.unimi.dsi.fastutil.ints.IntArrayFIFOQueue;
 import java.util.BitSet;
+import net.yazloysasha.tfcrealworld.world.noise.BilinearStrip;
 import net.yazloysasha.tfcrealworld.world.noise.PNGContinentNoise;
+import net.yazloysasha.tfcrealworld.world.noise.SampleAxis;
 import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
 
@@ -14,28 +17,45 @@ import org.slf4j.Logger;
 public class GlobalWestCoastDistanceCache extends BaseDistanceCache {
 
   private static final Logger LOGGER = LogUtils.getLogger();
+  private static final String PLANE_NAME = "west_coast_distance";
+  // Changing it changes the saved planes, bump DERIVATION_VERSION with it
+  private static final int SETTLED_DISTANCE = 41;
 
   @Nullable
-  private static GlobalWestCoastDistanceCache instance = null;
+  private static volatile GlobalWestCoastDistanceCache instance = null;
 
-  private GlobalWestCoastDistanceCache(PNGContinentNoise continentNoise) {
-    super(continentNoise);
-    calculateDistances(continentNoise);
+  private GlobalWestCoastDistanceCache(
+    PNGContinentNoise continentNoise,
+    boolean euclidean
+  ) {
+    super(continentNoise, euclidean);
+    boolean loaded = loadOrCalculate(PLANE_NAME, () -> {
+      long start = WorldgenMetrics.start();
+      calculateDistances(continentNoise);
+      WorldgenMetrics.record(WorldgenMetrics.Stage.WEST_COAST_DISTANCE_BUILD, start);
+    });
 
     LOGGER.info(
-      "Global west coast distance cache initialized: {}x{}",
+      "Global west coast distance cache initialized: {}x{} ({})",
       width,
-      height
+      height,
+      loaded ? "loaded from disk" : "calculated"
     );
   }
 
-  public static void initialize(PNGContinentNoise continentNoise) {
-    if (instance == null) {
-      instance = new GlobalWestCoastDistanceCache(continentNoise);
+  /**
+   * Builds the cache, or rebuilds it if it was built with the other distance transform.
+   */
+  public static synchronized void initialize(
+    PNGContinentNoise continentNoise,
+    boolean euclidean
+  ) {
+    if (instance == null || instance.euclidean != euclidean) {
+      instance = new GlobalWestCoastDistanceCache(continentNoise, euclidean);
     }
   }
 
-  public static void clear() {
+  public static synchronized void clear() {
     if (instance != null) {
       LOGGER.info("Clearing global west coast distance cache");
       instance = null;
@@ -48,33 +68,84 @@ public class GlobalWestCoastDistanceCache extends BaseDistanceCache {
   }
 
   public byte getDistance(int gridX, int gridZ) {
-    double clampedX = Math.clamp(gridX, -worldRadiusGridX, worldRadiusGridX);
-    double clampedZ = Math.clamp(gridZ, -worldRadiusGridZ, worldRadiusGridZ);
-
-    double imageX = centerX + clampedX * scaleX;
-    double imageZ = centerZ + clampedZ * scaleZ;
-
-    imageX = Math.clamp(imageX, 0, width - 1);
-    imageZ = Math.clamp(imageZ, 0, height - 1);
+    double imageX = toImageX(gridX);
+    double imageZ = toImageZ(gridZ);
 
     int x0 = (int) Math.floor(imageX);
     int z0 = (int) Math.floor(imageZ);
     int x1 = Math.min(x0 + 1, width - 1);
     int z1 = Math.min(z0 + 1, height - 1);
 
-    double fx = imageX - x0;
-    double fz = imageZ - z0;
+    return interpolate(
+      distanceMap[z0 * width + x0],
+      distanceMap[z0 * width + x1],
+      distanceMap[z1 * width + x0],
+      distanceMap[z1 * width + x1],
+      imageX - x0,
+      imageZ - z0
+    );
+  }
 
-    int idx00 = z0 * width + x0;
-    int idx10 = z0 * width + x1;
-    int idx01 = z1 * width + x0;
-    int idx11 = z1 * width + x1;
+  /**
+   * Batch version of {@link #getDistance} for a grid rectangle, walking the map row by row.
+   * The distance of cell (x, z) is stored at {@code (z - minZ) * sizeX + (x - minX)}.
+   */
+  public void getDistances(
+    int minX,
+    int minZ,
+    int sizeX,
+    int sizeZ,
+    byte[] out
+  ) {
+    SampleAxis columns = columnAxis(minX, sizeX);
+    SampleAxis rows = rowAxis(minZ, sizeZ);
+    BilinearStrip strip = new BilinearStrip(sizeX);
 
-    byte dist00 = distanceMap[idx00];
-    byte dist10 = distanceMap[idx10];
-    byte dist01 = distanceMap[idx01];
-    byte dist11 = distanceMap[idx11];
+    for (int row = 0; row < sizeZ; row++) {
+      getDistances(columns, rows, row, strip, out, row * sizeX);
+    }
+  }
 
+  /**
+   * Distances of one row of a rectangle described by precomputed axes,
+   * stored from {@code out[offset]}.
+   */
+  public void getDistances(
+    SampleAxis columns,
+    SampleAxis rows,
+    int row,
+    BilinearStrip strip,
+    byte[] out,
+    int offset
+  ) {
+    int row0 = rows.lower[row] * width;
+    int row1 = rows.upper[row] * width;
+    int length = columns.lower.length;
+    for (int column = 0; column < length; column++) {
+      int x0 = columns.lower[column];
+      int x1 = columns.upper[column];
+      strip.c00[column] = distanceMap[row0 + x0];
+      strip.c10[column] = distanceMap[row0 + x1];
+      strip.c01[column] = distanceMap[row1 + x0];
+      strip.c11[column] = distanceMap[row1 + x1];
+    }
+    strip.interpolate(columns, rows, row);
+    for (int column = 0; column < length; column++) {
+      out[offset + column] = (byte) Math.max(
+        0,
+        Math.round(strip.values[column])
+      );
+    }
+  }
+
+  private static byte interpolate(
+    byte dist00,
+    byte dist10,
+    byte dist01,
+    byte dist11,
+    double fx,
+    double fz
+  ) {
     double dist0 = dist00 * (1 - fx) + dist10 * fx;
     double dist1 = dist01 * (1 - fx) + dist11 * fx;
     double finalDist = dist0 * (1 - fz) + dist1 * fz;
@@ -82,48 +153,54 @@ public class GlobalWestCoastDistanceCache extends BaseDistanceCache {
   }
 
   private void calculateDistances(PNGContinentNoise continentNoise) {
-    final boolean[] isLandMap = new boolean[width * height];
-    for (int z = 0; z < height; z++) {
-      for (int x = 0; x < width; x++) {
-        isLandMap[z * width + x] = !isOceanPixel(x, z);
-      }
+    WestCoastSweep.computeParallel(
+      distanceMap,
+      width,
+      height,
+      this::isOceanPixel
+    );
+
+    if (euclidean) {
+      spreadEuclidean();
+    } else {
+      spreadBreadthFirst();
     }
+  }
 
-    for (int x = 0; x < width; x++) {
-      for (int z = 0; z < height; z++) {
-        int index = z * width + x;
-        boolean isLand = isLandMap[index];
-
-        if (x == 0) {
-          distanceMap[index] = 0;
-        } else {
-          int prevIndex = z * width + (x - 1);
-          byte prevValue = distanceMap[prevIndex];
-
-          if (!isLand) {
-            distanceMap[index] = (byte) Math.max(prevValue - 2, 0);
-          } else {
-            int sum = prevValue;
-            int count = 1;
-
-            for (int dz = -2; dz <= 2; dz++) {
-              int nz = z + dz;
-              if (nz >= 0 && nz < height && dz != 0) {
-                int neighborIndex = nz * width + (x - 1);
-                sum += distanceMap[neighborIndex];
-                count++;
-              }
-            }
-
-            distanceMap[index] = (byte) Math.min(
-              (int) Math.ceil(sum / (double) count) + 1,
-              127
-            );
-          }
+  /**
+   * Fills the pixels left at 0 by the sweep with the value of the nearest land pixel,
+   * walked one step per pixel of Euclidean distance towards {@link #SETTLED_DISTANCE}.
+   * This is the closed form of {@link #spreadBreadthFirst} without its diagonal bias.
+   */
+  private void spreadEuclidean() {
+    EuclideanDistanceTransform.compute(
+      width,
+      height,
+      index -> !isOceanPixel(index) && distanceMap[index] > 0,
+      (index, landIndex, distance) -> {
+        if (landIndex >= 0 && distanceMap[index] == 0) {
+          distanceMap[index] = (byte) settle(
+            distanceMap[landIndex],
+            (int) Math.max(Math.round(distance), 1)
+          );
         }
       }
+    );
+  }
+
+  /**
+   * Value reached from {@code value} after {@code steps} steps of the breadth-first spread,
+   * which moves values by one per step towards 41 and then alternates between 40 and 41.
+   */
+  private static int settle(int value, int steps) {
+    int gap = Math.abs(SETTLED_DISTANCE - value);
+    if (steps <= gap) {
+      return value < SETTLED_DISTANCE ? value + steps : value - steps;
     }
+    return (steps - gap) % 2 == 0 ? SETTLED_DISTANCE : SETTLED_DISTANCE - 1;
+  }
 
+  private void spreadBreadthFirst() {
     final BitSet explored = new BitSet(width * height);
     final IntArrayFIFOQueue queue = new IntArrayFIFOQueue();
 
@@ -131,7 +208,7 @@ public class GlobalWestCoastDistanceCache extends BaseDistanceCache {
       int zWidth = z * width;
       for (int x = 0; x < width; x++) {
         int index = zWidth + x;
-        if (isLandMap[index] && distanceMap[index] > 0) {
+        if (!isOceanPixel(index) && distanceMap[index] > 0) {
           explored.set(index);
           queue.enqueue(index);
         }
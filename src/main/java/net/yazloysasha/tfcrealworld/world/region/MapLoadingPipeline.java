@@ -0,0 +1,169 @@
+package net.yazloysasha.tfcrealworld.world.region;
+
+import com.mojang.logging.LogUtils;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import net.yazloysasha.tfcrealworld.util.WorldgenMetrics;
+import net.yazloysasha.tfcrealworld.world.noise.KoppenParameterCache;
+import net.yazloysasha.tfcrealworld.world.noise.PNGAltitudeNoise;
+import net.yazloysasha.tfcrealworld.world.noise.PNGContinentNoise;
+import net.yazloysasha.tfcrealworld.world.noise.PNGHotspotsNoise;
+import net.yazloysasha.tfcrealworld.world.noise.PNGKoppenNoise;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+
+/**
+ * Loads all maps needed by a RegionGenerator concurrently.
+ *
+ * The maps are independent of each other, so every map is decoded on its own thread, and the
+ * distance caches are built as soon as the continent map is ready. The Köppen parameter cache is
+ * built alongside. {@link #load} returns once everything is ready, so the total time is roughly
+ * that of the slowest map.
+ */
+public final class MapLoadingPipeline {
+
+  private static final Logger LOGGER = LogUtils.getLogger();
+
+  private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+  private MapLoadingPipeline() {}
+
+  /**
+   * Maps loaded for one RegionGenerator. Maps which are not used are null.
+   */
+  public record Maps(
+    @Nullable PNGContinentNoise continentNoise,
+    @Nullable PNGAltitudeNoise altitudeNoise,
+    @Nullable PNGHotspotsNoise hotspotsNoise,
+    @Nullable PNGKoppenNoise koppenNoise
+  ) {}
+
+  public static Maps load(
+    int horizontalWorldScale,
+    int verticalWorldScale,
+    boolean continentFromMap,
+    boolean altitudeFromMap,
+    boolean hotspotsFromMap,
+    boolean koppenFromMap,
+    boolean euclideanDistances
+  ) {
+    final long start = WorldgenMetrics.start();
+    final ExecutorService executor = Executors.newFixedThreadPool(
+      4,
+      MapLoadingPipeline::newThread
+    );
+
+    try {
+      CompletableFuture<PNGContinentNoise> continent = submit(
+        executor,
+        continentFromMap,
+        () -> new PNGContinentNoise(horizontalWorldScale, verticalWorldScale)
+      );
+      CompletableFuture<Void> distanceCaches = continent.thenCompose(
+        continentNoise ->
+          continentNoise == null
+            ? CompletableFuture.completedFuture(null)
+            : CompletableFuture.allOf(
+              CompletableFuture.runAsync(
+                () ->
+                  GlobalOceanDistanceCache.initialize(
+                    continentNoise,
+                    euclideanDistances
+                  ),
+                executor
+              ),
+              CompletableFuture.runAsync(
+                () ->
+                  GlobalWestCoastDistanceCache.initialize(
+                    continentNoise,
+                    euclideanDistances
+                  ),
+                executor
+              )
+            )
+      );
+
+      CompletableFuture<PNGAltitudeNoise> altitude = submit(
+        executor,
+        altitudeFromMap,
+        () -> new PNGAltitudeNoise(horizontalWorldScale, verticalWorldScale)
+      );
+      CompletableFuture<PNGHotspotsNoise> hotspots = submit(
+        executor,
+        hotspotsFromMap,
+        () -> new PNGHotspotsNoise(horizontalWorldScale, verticalWorldScale)
+      );
+      CompletableFuture<PNGKoppenNoise> koppen = submit(
+        executor,
+        koppenFromMap,
+        () -> new PNGKoppenNoise(horizontalWorldScale, verticalWorldScale)
+      );
+      CompletableFuture<KoppenParameterCache> parameterCache = submit(
+        executor,
+        koppenFromMap,
+        KoppenParameterCache::getInstance
+      );
+
+      Maps maps = new Maps(
+        join(continent),
+        join(altitude),
+        join(hotspots),
+        join(koppen)
+      );
+      join(distanceCaches);
+      join(parameterCache);
+
+      WorldgenMetrics.record(WorldgenMetrics.Stage.MAP_LOAD, start);
+      LOGGER.info(
+        "Loaded world maps in {} ms",
+        (System.nanoTime() - start) / 1_000_000
+      );
+      return maps;
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  private static <T> CompletableFuture<T> submit(
+    ExecutorService executor,
+    boolean enabled,
+    Supplier<T> task
+  ) {
+    if (!enabled) {
+      return CompletableFuture.completedFuture(null);
+    }
+    return CompletableFuture.supplyAsync(task, executor);
+  }
+
+  /**
+   * Waits for the result and rethrows the original exception of a failed map,
+   * so a missing map fails world creation with the same message as before.
+   */
+  private static <T> T join(CompletableFuture<T> future) {
+    try {
+      return future.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      if (e.getCause() instanceof Error error) {
+        throw error;
+      }
+      throw e;
+    }
+  }
+
+  private static Thread newThread(Runnable runnable) {
+    Thread thread = new Thread(
+      runnable,
+      "TFCRealWorld-MapLoader-" + THREAD_COUNTER.incrementAndGet()
+    );
+    thread.setDaemon(true);
+    return thread;
+  }
+}
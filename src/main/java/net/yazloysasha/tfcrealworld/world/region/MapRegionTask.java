@@ -0,0 +1,60 @@
+package net.yazloysasha.tfcrealworld.world.region;
+
+import java.util.function.BiConsumer;
+import net.dries007.tfc.world.region.Region;
+import net.dries007.tfc.world.region.RegionGenerator;
+import net.dries007.tfc.world.region.RegionTask;
+import net.yazloysasha.tfcrealworld.util.WorldgenMetrics;
+
+/**
+ * Region tasks which replace a TFC task when its values come from the maps.
+ * Each one runs its calculator and records the time under its metrics stage. The map
+ * annotations the calculator reads are computed before the clock starts, so their cost is
+ * only recorded under their own stage.
+ */
+public enum MapRegionTask implements RegionTask {
+  DISTANCE_TO_OCEAN(
+    WorldgenMetrics.Stage.DISTANCE_TO_OCEAN,
+    true,
+    OceanDistanceCalculator::calculateDistanceToOcean
+  ),
+  BASE_LAND_HEIGHT(
+    WorldgenMetrics.Stage.BASE_LAND_HEIGHT,
+    true,
+    AltitudeCalculator::calculateAltitude
+  ),
+  DISTANCE_TO_WEST_COAST(
+    WorldgenMetrics.Stage.DISTANCE_TO_WEST_COAST,
+    true,
+    WestCoastDistanceCalculator::calculateDistanceToWestCoast
+  ),
+  BIOME_ALTITUDE(
+    WorldgenMetrics.Stage.BIOME_ALTITUDE,
+    false,
+    BiomeAltitudeCalculator::calculateBiomeAltitude
+  );
+
+  private final WorldgenMetrics.Stage stage;
+  private final boolean readsAnnotations;
+  private final BiConsumer<Region, RegionGenerator> calculator;
+
+  MapRegionTask(
+    WorldgenMetrics.Stage stage,
+    boolean readsAnnotations,
+    BiConsumer<Region, RegionGenerator> calculator
+  ) {
+    this.stage = stage;
+    this.readsAnnotations = readsAnnotations;
+    this.calculator = calculator;
+  }
+
+  @Override
+  public void apply(RegionGenerator.Context context) {
+    if (readsAnnotations) {
+      RegionMapAnnotator.annotations(context.region, context.generator());
+    }
+    final long start = WorldgenMetrics.start();
+    calculator.accept(context.region, context.generator());
+    WorldgenMetrics.record(stage, start, context.region);
+  }
+}
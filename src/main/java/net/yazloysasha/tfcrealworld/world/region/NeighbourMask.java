@@ -0,0 +1,75 @@
+package net.yazloysasha.tfcrealworld.world.region;
+
+import net.dries007.tfc.world.region.Region;
+
+/**
+ * One bit per cell of a region grid, packed 64 cells per word along each row.
+ *
+ * {@link #dilate} sets every cell which is set or has a set cell among its eight neighbours,
+ * with a few shifts per word, so "is any neighbour set" becomes one lookup per point instead
+ * of eight point lookups. Rows and columns are padded by one cell on each side, so cells on the edge
+ * of the grid need no bounds checks.
+ */
+public final class NeighbourMask {
+
+  private final RegionGrid grid;
+  private final int words;
+  private final long[] bits;
+
+  public NeighbourMask(RegionGrid grid) {
+    this.grid = grid;
+    this.words = (grid.sizeX + 2 + 63) >>> 6;
+    this.bits = new long[words * (grid.sizeZ + 2)];
+  }
+
+  public void set(Region.Point point) {
+    set(point.x - grid.minX, point.z - grid.minZ);
+  }
+
+  public void set(int column, int row) {
+    int bit = column + 1;
+    bits[(row + 1) * words + (bit >>> 6)] |= 1L << bit;
+  }
+
+  public boolean get(Region.Point point) {
+    return get(point.x - grid.minX, point.z - grid.minZ);
+  }
+
+  public boolean get(int column, int row) {
+    int bit = column + 1;
+    return (bits[(row + 1) * words + (bit >>> 6)] & (1L << bit)) != 0;
+  }
+
+  /**
+   * Returns a mask where each cell is set if it or any of its eight neighbours is set here.
+   */
+  public NeighbourMask dilate() {
+    int rows = grid.sizeZ + 2;
+
+    // Each cell or its left and right neighbours
+    long[] horizontal = new long[bits.length];
+    for (int row = 0; row < rows; row++) {
+      int offset = row * words;
+      for (int word = 0; word < words; word++) {
+        long value = bits[offset + word];
+        long left = word > 0 ? bits[offset + word - 1] >>> 63 : 0;
+        long right = word < words - 1 ? bits[offset + word + 1] << 63 : 0;
+        horizontal[offset + word] =
+          value | (value << 1) | left | (value >>> 1) | right;
+      }
+    }
+
+    // Then the rows above and below, the padding rows stay empty
+    NeighbourMask dilated = new NeighbourMask(grid);
+    for (int row = 1; row < rows - 1; row++) {
+      int offset = row * words;
+      for (int word = 0; word < words; word++) {
+        dilated.bits[offset + word] =
+          horizontal[offset - words + word] |
+          horizontal[offset + word] |
+          horizontal[offset + words + word];
+      }
+    }
+    return dilated;
+  }
+}
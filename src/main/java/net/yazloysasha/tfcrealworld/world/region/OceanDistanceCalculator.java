@@ -2,8 +2,7 @@ package net.yazloysasha.tfcrealworld.world.region;
 
 import net.dries007.tfc.world.region.Region;
 import net.dries007.tfc.world.region.RegionGenerator;
-import net.yazloysasha.tfcrealworld.config.TFCRealWorldConfig;
-import org.jetbrains.annotations.Nullable;
+import net.yazloysasha.tfcrealworld.util.RegionGeneratorConfig;
 
 /**
  * Calculator for distance to ocean based on global cache.
@@ -15,46 +14,34 @@ public class OceanDistanceCalculator {
     Region region,
     RegionGenerator generator
   ) {
-    if (!TFCRealWorldConfig.getContinentFromMap()) {
+    if (!RegionGeneratorConfig.get(generator).continentFromMap()) {
       return;
     }
 
-    GlobalOceanDistanceCache cache = GlobalOceanDistanceCache.getInstance();
-    if (cache == null) {
+    RegionMapAnnotator.MapAnnotations annotations =
+      RegionMapAnnotator.annotations(region, generator);
+    if (annotations == null || annotations.landDistancesToOcean == null) {
       return;
     }
 
+    // Ocean points next to land which is not an island are shores
+    NeighbourMask continentalLand = new NeighbourMask(annotations.grid);
     for (final var point : region.points()) {
       if (point != null) {
-        point.distanceToOcean = cache.getDistance(
-          point.x,
-          point.z,
-          point.land()
-        );
+        int index = annotations.grid.indexOf(point);
+        point.distanceToOcean = point.land()
+          ? annotations.landDistancesToOcean[index]
+          : annotations.oceanDistancesToOcean[index];
+        if (point.land() && !point.island()) {
+          continentalLand.set(point);
+        }
       }
     }
 
+    NeighbourMask nearContinentalLand = continentalLand.dilate();
     for (final var point : region.points()) {
-      if (point != null && !point.land()) {
-        boolean hasNonIslandLandNeighbor = false;
-
-        for (int dx = -1; dx <= 1; dx++) {
-          for (int dz = -1; dz <= 1; dz++) {
-            if (dx == 0 && dz == 0) continue;
-
-            @Nullable
-            Region.Point neighbor = region.atOffset(point.index, dx, dz);
-            if (neighbor != null && neighbor.land() && !neighbor.island()) {
-              hasNonIslandLandNeighbor = true;
-              break;
-            }
-          }
-          if (hasNonIslandLandNeighbor) break;
-        }
-
-        if (hasNonIslandLandNeighbor) {
-          point.setShore();
-        }
+      if (point != null && !point.land() && nearContinentalLand.get(point)) {
+        point.setShore();
       }
     }
   }
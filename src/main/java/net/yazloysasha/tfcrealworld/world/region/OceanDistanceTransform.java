@@ -0,0 +1,325 @@
+package net.yazloysasha.tfcrealworld.world.region;
+
+import it.unimi.dsi.fastutil.ints.IntArrayFIFOQueue;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import java.util.BitSet;
+import java.util.function.IntPredicate;
+import java.util.stream.IntStream;
+
+/**
+ * Computes the distance to ocean for every pixel of the continent map.
+ *
+ * Ocean pixels are marked with -1, and ocean pixels next to land which is further
+ * than one pixel from the ocean are marked with -2. Land pixels store the 8-neighbour
+ * (Chebyshev) distance to the nearest ocean pixel minus one, saturated at 127.
+ *
+ * The parallel transform runs a level-synchronous BFS: every level of the frontier is
+ * split into chunks which are expanded on the common fork-join pool. All pixels of a level
+ * get the same distance, so the result is identical to the sequential FIFO BFS.
+ *
+ * The Euclidean transform stores the same encoding, but land pixels get their rounded
+ * Euclidean distance to the nearest ocean pixel minus one.
+ */
+public final class OceanDistanceTransform {
+
+  private static final byte UNVISITED = -3;
+  private static final int MIN_PARALLEL_FRONTIER = 4096;
+  private static final int MIN_CHUNK_SIZE = 1024;
+
+  private OceanDistanceTransform() {}
+
+  /**
+   * Fills {@code distanceMap} using a frontier-parallel BFS.
+   */
+  public static void computeParallel(
+    byte[] distanceMap,
+    int width,
+    int height,
+    IntPredicate isOcean
+  ) {
+    IntStream.range(0, height)
+      .parallel()
+      .forEach(z -> {
+        int zWidth = z * width;
+        for (int x = 0; x < width; x++) {
+          int index = zWidth + x;
+          distanceMap[index] = isOcean.test(index) ? -1 : UNVISITED;
+        }
+      });
+
+    int[] frontier = IntStream.range(0, height)
+      .parallel()
+      .flatMap(z -> {
+        IntArrayList row = new IntArrayList();
+        int zWidth = z * width;
+        for (int x = 0; x < width; x++) {
+          if (
+            distanceMap[zWidth + x] == -1 &&
+            hasNeighbor(distanceMap, width, height, x, z, UNVISITED)
+          ) {
+            row.add(zWidth + x);
+          }
+        }
+        return IntStream.of(row.toIntArray());
+      })
+      .toArray();
+
+    int level = 0;
+    while (frontier.length > 0) {
+      final byte distance = (byte) Math.min(level, 127);
+      frontier = expand(frontier, distanceMap, width, height, distance);
+      level++;
+    }
+
+    IntStream.range(0, height)
+      .parallel()
+      .forEach(z -> {
+        int zWidth = z * width;
+        for (int x = 0; x < width; x++) {
+          if (distanceMap[zWidth + x] == UNVISITED) {
+            distanceMap[zWidth + x] = 0;
+          }
+        }
+      });
+
+    markCoast(distanceMap, width, height, true);
+  }
+
+  /**
+   * Fills {@code distanceMap} using the {@link EuclideanDistanceTransform}.
+   */
+  public static void computeEuclidean(
+    byte[] distanceMap,
+    int width,
+    int height,
+    IntPredicate isOcean
+  ) {
+    EuclideanDistanceTransform.compute(
+      width,
+      height,
+      isOcean,
+      (index, oceanIndex, distance) -> {
+        if (distance == 0) {
+          distanceMap[index] = -1;
+        } else if (oceanIndex < 0) {
+          // No ocean on the whole map, like the pixels the BFS never reaches
+          distanceMap[index] = 0;
+        } else {
+          long landDistance = Math.round(distance) - 1;
+          distanceMap[index] = (byte) Math.min(landDistance, 127);
+        }
+      }
+    );
+
+    markCoast(distanceMap, width, height, true);
+  }
+
+  /**
+   * Fills {@code distanceMap} using a single-threaded FIFO BFS.
+   * Kept as the reference implementation for the parallel transform.
+   */
+  public static void computeSequential(
+    byte[] distanceMap,
+    int width,
+    int height,
+    IntPredicate isOcean
+  ) {
+    final BitSet explored = new BitSet(width * height);
+    final IntArrayFIFOQueue queue = new IntArrayFIFOQueue();
+
+    for (int z = 0; z < height; z++) {
+      int zWidth = z * width;
+      for (int x = 0; x < width; x++) {
+        int index = zWidth + x;
+        if (isOcean.test(index)) {
+          distanceMap[index] = -1;
+          queue.enqueue(index);
+          explored.set(index);
+        } else {
+          distanceMap[index] = 0;
+        }
+      }
+    }
+
+    while (!queue.isEmpty()) {
+      final int last = queue.dequeueInt();
+      final int lastX = last % width;
+      final int lastZ = last / width;
+      final int nextDistance = distanceMap[last] + 1;
+
+      for (int dz = -1; dz <= 1; dz++) {
+        int nz = lastZ + dz;
+        if (nz < 0 || nz >= height) continue;
+        for (int dx = -1; dx <= 1; dx++) {
+          int nx = lastX + dx;
+          if ((dx == 0 && dz == 0) || nx < 0 || nx >= width) continue;
+          int idx = nz * width + nx;
+          if (distanceMap[idx] == 0 && !explored.get(idx)) {
+            distanceMap[idx] = (byte) Math.min(nextDistance, 127);
+            queue.enqueue(idx);
+            explored.set(idx);
+          }
+        }
+      }
+    }
+
+    markCoast(distanceMap, width, height, false);
+  }
+
+  /**
+   * Expands one BFS level. Pixels claimed concurrently by two chunks may appear twice
+   * in the next frontier, which only repeats work since they carry the same distance.
+   */
+  private static int[] expand(
+    int[] frontier,
+    byte[] distanceMap,
+    int width,
+    int height,
+    byte distance
+  ) {
+    if (frontier.length < MIN_PARALLEL_FRONTIER) {
+      IntArrayList next = new IntArrayList();
+      expandRange(
+        frontier,
+        0,
+        frontier.length,
+        distanceMap,
+        width,
+        height,
+        distance,
+        next
+      );
+      return next.toIntArray();
+    }
+
+    int chunks = Math.max(
+      1,
+      Math.min(
+        frontier.length / MIN_CHUNK_SIZE,
+        Runtime.getRuntime().availableProcessors() * 4
+      )
+    );
+    int chunkSize = (frontier.length + chunks - 1) / chunks;
+    return IntStream.range(0, chunks)
+      .parallel()
+      .flatMap(chunk -> {
+        int from = chunk * chunkSize;
+        int to = Math.min(from + chunkSize, frontier.length);
+        IntArrayList next = new IntArrayList();
+        expandRange(
+          frontier,
+          from,
+          to,
+          distanceMap,
+          width,
+          height,
+          distance,
+          next
+        );
+        return IntStream.of(next.toIntArray());
+      })
+      .toArray();
+  }
+
+  private static void expandRange(
+    int[] frontier,
+    int from,
+    int to,
+    byte[] distanceMap,
+    int width,
+    int height,
+    byte distance,
+    IntArrayList next
+  ) {
+    for (int i = from; i < to; i++) {
+      final int last = frontier[i];
+      final int lastX = last % width;
+      final int lastZ = last / width;
+
+      for (int dz = -1; dz <= 1; dz++) {
+        int nz = lastZ + dz;
+        if (nz < 0 || nz >= height) continue;
+        for (int dx = -1; dx <= 1; dx++) {
+          int nx = lastX + dx;
+          if ((dx == 0 && dz == 0) || nx < 0 || nx >= width) continue;
+          int idx = nz * width + nx;
+          if (distanceMap[idx] == UNVISITED) {
+            distanceMap[idx] = distance;
+            next.add(idx);
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Marks ocean pixels (-1) which have a land neighbour with a positive distance as coast (-2).
+   * Only land values are read and only ocean values are written, so rows can run in parallel.
+   */
+  private static void markCoast(
+    byte[] distanceMap,
+    int width,
+    int height,
+    boolean parallel
+  ) {
+    IntStream rows = IntStream.range(0, height);
+    if (parallel) {
+      rows = rows.parallel();
+    }
+    rows.forEach(z -> {
+      int zWidth = z * width;
+      for (int x = 0; x < width; x++) {
+        int index = zWidth + x;
+        if (
+          distanceMap[index] == -1 &&
+          hasPositiveNeighbor(distanceMap, width, height, x, z)
+        ) {
+          distanceMap[index] = -2;
+        }
+      }
+    });
+  }
+
+  private static boolean hasNeighbor(
+    byte[] distanceMap,
+    int width,
+    int height,
+    int x,
+    int z,
+    byte value
+  ) {
+    for (int dz = -1; dz <= 1; dz++) {
+      int nz = z + dz;
+      if (nz < 0 || nz >= height) continue;
+      for (int dx = -1; dx <= 1; dx++) {
+        int nx = x + dx;
+        if ((dx == 0 && dz == 0) || nx < 0 || nx >= width) continue;
+        if (distanceMap[nz * width + nx] == value) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  private static boolean hasPositiveNeighbor(
+    byte[] distanceMap,
+    int width,
+    int height,
+    int x,
+    int z
+  ) {
+    for (int dz = -1; dz <= 1; dz++) {
+      int nz = z + dz;
+      if (nz < 0 || nz >= height) continue;
+      for (int dx = -1; dx <= 1; dx++) {
+        int nx = x + dx;
+        if ((dx == 0 && dz == 0) || nx < 0 || nx >= width) continue;
+        if (distanceMap[nz * width + nx] > 0) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+}
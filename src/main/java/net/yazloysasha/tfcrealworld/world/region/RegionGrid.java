@@ -0,0 +1,60 @@
+package net.yazloysasha.tfcrealworld.world.region;
+
+import net.dries007.tfc.world.region.Region;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Grid bounds of a region, used to annotate all of its points with one batch lookup.
+ * Batch results are stored row by row, cell (x, z) at {@code (z - minZ) * sizeX + (x - minX)}.
+ */
+public final class RegionGrid {
+
+  public final int minX;
+  public final int minZ;
+  public final int sizeX;
+  public final int sizeZ;
+
+  private RegionGrid(int minX, int minZ, int sizeX, int sizeZ) {
+    this.minX = minX;
+    this.minZ = minZ;
+    this.sizeX = sizeX;
+    this.sizeZ = sizeZ;
+  }
+
+  public static RegionGrid of(int minX, int minZ, int sizeX, int sizeZ) {
+    return new RegionGrid(minX, minZ, sizeX, sizeZ);
+  }
+
+  /**
+   * Returns the bounds of the points of the region, or null if it has no points.
+   */
+  @Nullable
+  public static RegionGrid of(Region region) {
+    int minX = Integer.MAX_VALUE;
+    int minZ = Integer.MAX_VALUE;
+    int maxX = Integer.MIN_VALUE;
+    int maxZ = Integer.MIN_VALUE;
+
+    for (final var point : region.points()) {
+      if (point != null) {
+        minX = Math.min(minX, point.x);
+        minZ = Math.min(minZ, point.z);
+        maxX = Math.max(maxX, point.x);
+        maxZ = Math.max(maxZ, point.z);
+      }
+    }
+
+    if (minX > maxX) {
+      return null;
+    }
+    return new RegionGrid(minX, minZ, maxX - minX + 1, maxZ - minZ + 1);
+  }
+
+  public int size() {
+    return sizeX * sizeZ;
+  }
+
+  public int indexOf(Region.Point point) {
+    return (point.z - minZ) * sizeX + (point.x - minX);
+  }
+}
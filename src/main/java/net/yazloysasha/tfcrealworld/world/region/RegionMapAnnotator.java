@@ -0,0 +1,229 @@
+package net.yazloysasha.tfcrealworld.world.region;
+
+import net.dries007.tfc.world.region.Region;
+import net.dries007.tfc.world.region.RegionGenerator;
+import net.yazloysasha.tfcrealworld.config.ConfigView;
+import net.yazloysasha.tfcrealworld.util.AltitudeNoiseRegistry;
+import net.yazloysasha.tfcrealworld.util.HotspotsNoiseRegistry;
+import net.yazloysasha.tfcrealworld.util.RegionExtension;
+import net.yazloysasha.tfcrealworld.util.RegionGeneratorConfig;
+import net.yazloysasha.tfcrealworld.util.WorldgenMetrics;
+import net.yazloysasha.tfcrealworld.world.noise.BilinearStrip;
+import net.yazloysasha.tfcrealworld.world.noise.PNGAltitudeNoise;
+import net.yazloysasha.tfcrealworld.world.noise.PNGHotspotsNoise;
+import net.yazloysasha.tfcrealworld.world.noise.SampleAxis;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Computes every map value of a region in a single pass over its grid.
+ *
+ * Altitude, hotspot age, distance to ocean and distance to west coast are read from the maps
+ * one row at a time, with each row interpolated as a {@link BilinearStrip}, and the sample axes
+ * are shared between maps with the same transform. The values do not depend on the land mask,
+ * so they are computed once when the first map stage of a region runs and stored on the region.
+ * The later stages only copy them into the points, and the west coast stage, the last of them,
+ * releases them.
+ */
+public final class RegionMapAnnotator {
+
+  private RegionMapAnnotator() {}
+
+  /**
+   * Map values of every cell of a region grid, stored at {@link RegionGrid#indexOf}.
+   * Arrays of maps which are not used are null.
+   */
+  public static final class MapAnnotations {
+
+    public final RegionGrid grid;
+
+    @Nullable
+    public final int[] altitudes;
+
+    @Nullable
+    public final byte[] hotSpotAges;
+
+    @Nullable
+    public final byte[] landDistancesToOcean;
+
+    @Nullable
+    public final byte[] oceanDistancesToOcean;
+
+    @Nullable
+    public final byte[] distancesToWestCoast;
+
+    private MapAnnotations(
+      RegionGrid grid,
+      boolean altitude,
+      boolean hotspots,
+      boolean ocean,
+      boolean westCoast
+    ) {
+      int size = grid.size();
+      this.grid = grid;
+      this.altitudes = altitude ? new int[size] : null;
+      this.hotSpotAges = hotspots ? new byte[size] : null;
+      this.landDistancesToOcean = ocean ? new byte[size] : null;
+      this.oceanDistancesToOcean = ocean ? new byte[size] : null;
+      this.distancesToWestCoast = westCoast ? new byte[size] : null;
+    }
+  }
+
+  /**
+   * Returns the map values of the region, computing them on the first call.
+   * Returns null if the region has no points. The computation is recorded under its own
+   * metrics stage, not under the stage which happened to ask first.
+   */
+  @Nullable
+  public static MapAnnotations annotations(
+    Region region,
+    RegionGenerator generator
+  ) {
+    RegionExtension extension = (RegionExtension) region;
+    MapAnnotations annotations = extension.tfcrealworld$getMapAnnotations();
+    if (annotations != null) {
+      return annotations;
+    }
+
+    final long start = WorldgenMetrics.start();
+    RegionGrid grid = RegionGrid.of(region);
+    if (grid == null) {
+      return null;
+    }
+
+    ConfigView config = RegionGeneratorConfig.get(generator);
+    annotations = compute(
+      grid,
+      config.altitudeFromMap() ? AltitudeNoiseRegistry.get(generator) : null,
+      config.hotspotsFromMap() ? HotspotsNoiseRegistry.get(generator) : null,
+      config.continentFromMap() ? GlobalOceanDistanceCache.getInstance() : null,
+      config.continentFromMap()
+        ? GlobalWestCoastDistanceCache.getInstance()
+        : null
+    );
+    extension.tfcrealworld$setMapAnnotations(annotations);
+    WorldgenMetrics.record(
+      WorldgenMetrics.Stage.MAP_ANNOTATIONS,
+      start,
+      region
+    );
+    return annotations;
+  }
+
+  /**
+   * Drops the map values stored on the region, once no later stage reads them.
+   */
+  public static void release(Region region) {
+    ((RegionExtension) region).tfcrealworld$setMapAnnotations(null);
+  }
+
+  /**
+   * Samples all given maps for every cell of the grid in one pass. Null maps are skipped.
+   */
+  public static MapAnnotations compute(
+    RegionGrid grid,
+    @Nullable PNGAltitudeNoise altitudeNoise,
+    @Nullable PNGHotspotsNoise hotspotsNoise,
+    @Nullable GlobalOceanDistanceCache oceanCache,
+    @Nullable GlobalWestCoastDistanceCache westCoastCache
+  ) {
+    MapAnnotations annotations = new MapAnnotations(
+      grid,
+      altitudeNoise != null,
+      hotspotsNoise != null,
+      oceanCache != null,
+      westCoastCache != null
+    );
+
+    SampleAxis altitudeColumns = null;
+    SampleAxis altitudeRows = null;
+    if (altitudeNoise != null) {
+      altitudeColumns = altitudeNoise.columnAxis(grid.minX, grid.sizeX);
+      altitudeRows = altitudeNoise.rowAxis(grid.minZ, grid.sizeZ);
+    }
+
+    SampleAxis hotspotsColumns = null;
+    SampleAxis hotspotsRows = null;
+    if (hotspotsNoise != null) {
+      if (
+        altitudeNoise != null && hotspotsNoise.hasSameTransform(altitudeNoise)
+      ) {
+        hotspotsColumns = altitudeColumns;
+        hotspotsRows = altitudeRows;
+      } else {
+        hotspotsColumns = hotspotsNoise.columnAxis(grid.minX, grid.sizeX);
+        hotspotsRows = hotspotsNoise.rowAxis(grid.minZ, grid.sizeZ);
+      }
+    }
+
+    // Both distance caches are derived from the continent map and share its transform
+    SampleAxis distanceColumns = null;
+    SampleAxis distanceRows = null;
+    BaseDistanceCache distanceCache = oceanCache != null
+      ? oceanCache
+      : westCoastCache;
+    if (distanceCache != null) {
+      distanceColumns = distanceCache.columnAxis(grid.minX, grid.sizeX);
+      distanceRows = distanceCache.rowAxis(grid.minZ, grid.sizeZ);
+    }
+
+    // Corners are gathered per cell, and each row is interpolated as one strip
+    BilinearStrip strip = new BilinearStrip(grid.sizeX);
+    for (int row = 0; row < grid.sizeZ; row++) {
+      int offset = row * grid.sizeX;
+
+      if (altitudeNoise != null) {
+        altitudeNoise.sampleBrightnessRow(
+          altitudeColumns,
+          altitudeRows,
+          row,
+          strip
+        );
+        for (int column = 0; column < grid.sizeX; column++) {
+          annotations.altitudes[offset + column] = altitudeNoise.toAltitude(
+            strip.values[column]
+          );
+        }
+      }
+      if (hotspotsNoise != null) {
+        hotspotsNoise.sampleBrightnessRow(
+          hotspotsColumns,
+          hotspotsRows,
+          row,
+          strip
+        );
+        for (int column = 0; column < grid.sizeX; column++) {
+          annotations.hotSpotAges[offset + column] =
+            PNGHotspotsNoise.toHotSpotAge(strip.values[column]);
+        }
+      }
+      if (oceanCache != null) {
+        oceanCache.getLandDistances(
+          distanceColumns,
+          distanceRows,
+          row,
+          strip,
+          annotations.landDistancesToOcean,
+          offset
+        );
+        oceanCache.getOceanDistances(
+          distanceColumns,
+          distanceRows,
+          row,
+          annotations.oceanDistancesToOcean,
+          offset
+        );
+      }
+      if (westCoastCache != null) {
+        westCoastCache.getDistances(
+          distanceColumns,
+          distanceRows,
+          row,
+          strip,
+          annotations.distancesToWestCoast,
+          offset
+        );
+      }
+    }
+    return annotations;
+  }
+}
@@ -0,0 +1,102 @@
+package net.yazloysasha.tfcrealworld.world.region;
+
+import java.util.ArrayList;
+import java.util.List;
+import net.dries007.tfc.world.region.RegionGenerator;
+import net.dries007.tfc.world.region.RegionTask;
+import net.yazloysasha.tfcrealworld.config.ConfigView;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * The TFC region tasks a RegionGenerator runs for its map modes.
+ *
+ * Tasks whose result is fully overwritten by a map are dropped, and tasks whose values are
+ * read from a map are replaced by a {@link MapRegionTask}, so region generation does not
+ * dispatch into a TFC task only to cancel it. Built once per generator by RegionGeneratorMixin.
+ */
+public final class RegionTaskPlan {
+
+  private final RegionGenerator.Task[] tasks;
+  private final RegionTask[] replacements;
+
+  private RegionTaskPlan(
+    RegionGenerator.Task[] tasks,
+    RegionTask[] replacements
+  ) {
+    this.tasks = tasks;
+    this.replacements = replacements;
+  }
+
+  public static RegionTaskPlan of(ConfigView config) {
+    return of(config.continentFromMap(), config.altitudeFromMap());
+  }
+
+  public static RegionTaskPlan of(
+    boolean continentFromMap,
+    boolean altitudeFromMap
+  ) {
+    final RegionGenerator.Task[] values = RegionGenerator.Task.values();
+    final List<RegionGenerator.Task> tasks = new ArrayList<>(values.length);
+    final RegionTask[] replacements = new RegionTask[values.length];
+
+    for (RegionGenerator.Task task : values) {
+      switch (task) {
+        // Inland seas drawn on the map are kept
+        case FLOOD_FILL_SMALL_OCEANS:
+          if (continentFromMap) {
+            continue;
+          }
+          break;
+        // Mountains come from the altitude map
+        case ADD_MOUNTAINS:
+          if (altitudeFromMap) {
+            continue;
+          }
+          break;
+        case ANNOTATE_DISTANCE_TO_OCEAN:
+          if (continentFromMap) {
+            replacements[task.ordinal()] = MapRegionTask.DISTANCE_TO_OCEAN;
+          }
+          break;
+        case ANNOTATE_DISTANCE_TO_WEST_COAST:
+          if (continentFromMap) {
+            replacements[task.ordinal()] =
+              MapRegionTask.DISTANCE_TO_WEST_COAST;
+          }
+          break;
+        case ANNOTATE_BASE_LAND_HEIGHT:
+          if (altitudeFromMap) {
+            replacements[task.ordinal()] = MapRegionTask.BASE_LAND_HEIGHT;
+          }
+          break;
+        case ANNOTATE_BIOME_ALTITUDE:
+          if (altitudeFromMap) {
+            replacements[task.ordinal()] = MapRegionTask.BIOME_ALTITUDE;
+          }
+          break;
+        default:
+          break;
+      }
+      tasks.add(task);
+    }
+    return new RegionTaskPlan(
+      tasks.toArray(RegionGenerator.Task[]::new),
+      replacements
+    );
+  }
+
+  /**
+   * The tasks to run, in TFC order. The caller must not modify the array.
+   */
+  public RegionGenerator.Task[] tasks() {
+    return tasks;
+  }
+
+  /**
+   * The task which runs in place of {@code task}, or null to run TFC's own.
+   */
+  @Nullable
+  public RegionTask replacement(RegionGenerator.Task task) {
+    return replacements[task.ordinal()];
+  }
+}
@@ -2,10 +2,11 @@ package net.yazloysasha.tfcrealworld.world.region;
 
 import net.dries007.tfc.world.region.Region;
 import net.dries007.tfc.world.region.RegionGenerator;
-import net.yazloysasha.tfcrealworld.config.TFCRealWorldConfig;
+import net.yazloysasha.tfcrealworld.util.RegionGeneratorConfig;
 
 /**
  * Calculator for distance to west coast based on global cache.
+ * The last stage reading the region map annotations, so it releases them.
  */
 public class WestCoastDistanceCalculator {
 
@@ -13,19 +14,21 @@ public class WestCoastDistanceCalculator {
     Region region,
     RegionGenerator generator
   ) {
-    if (!TFCRealWorldConfig.getContinentFromMap()) {
+    if (!RegionGeneratorConfig.get(generator).continentFromMap()) {
       return;
     }
 
-    GlobalWestCoastDistanceCache cache =
-      GlobalWestCoastDistanceCache.getInstance();
-    if (cache == null) {
+    RegionMapAnnotator.MapAnnotations annotations =
+      RegionMapAnnotator.annotations(region, generator);
+    RegionMapAnnotator.release(region);
+    if (annotations == null || annotations.distancesToWestCoast == null) {
       return;
     }
 
     for (final var point : region.points()) {
       if (point != null) {
-        point.distanceToWestCoast = cache.getDistance(point.x, point.z);
+        point.distanceToWestCoast =
+          annotations.distancesToWestCoast[annotations.grid.indexOf(point)];
       }
     }
   }
@@ -0,0 +1,174 @@
+package net.yazloysasha.tfcrealworld.world.region;
+
+import java.util.function.IntPredicate;
+import java.util.stream.IntStream;
+
+/**
+ * The west to east sweep which seeds the distance to west coast.
+ *
+ * Each column is computed from the previous one: ocean pixels lose 2, and land pixels
+ * take the rounded-up mean of the five nearest pixels of the previous column plus one.
+ *
+ * The parallel sweep splits the map into bands of rows and walks blocks of
+ * {@link #BLOCK_COLUMNS} columns. A pixel only depends on the pixels at most 2 rows away in
+ * the previous column, so each band also computes {@code 2 * BLOCK_COLUMNS} halo rows on both
+ * sides. After a block, the halo rows are discarded and the band rows are exact, so bands
+ * only need to synchronize once per block. Bands are computed in a transposed buffer, so the
+ * sweep reads and writes consecutive bytes, and the result is identical to the sequential sweep.
+ */
+public final class WestCoastSweep {
+
+  private static final int BAND_ROWS = 512;
+  private static final int BLOCK_COLUMNS = 16;
+  private static final int HALO_ROWS = 2 * BLOCK_COLUMNS;
+
+  private WestCoastSweep() {}
+
+  /**
+   * Fills {@code distanceMap} band by band on the common fork-join pool.
+   */
+  public static void computeParallel(
+    byte[] distanceMap,
+    int width,
+    int height,
+    IntPredicate isOcean
+  ) {
+    for (int z = 0; z < height; z++) {
+      distanceMap[z * width] = 0;
+    }
+
+    int bands = (height + BAND_ROWS - 1) / BAND_ROWS;
+    for (int fromX = 1; fromX < width; fromX += BLOCK_COLUMNS) {
+      final int blockX = fromX;
+      final int toX = Math.min(fromX + BLOCK_COLUMNS, width);
+      IntStream.range(0, bands)
+        .parallel()
+        .forEach(band ->
+          sweepBand(
+            distanceMap,
+            width,
+            height,
+            isOcean,
+            blockX,
+            toX,
+            band * BAND_ROWS,
+            Math.min((band + 1) * BAND_ROWS, height)
+          )
+        );
+    }
+  }
+
+  /**
+   * Fills {@code distanceMap} column by column on the calling thread.
+   * Kept as the reference implementation for the parallel sweep.
+   */
+  public static void computeSequential(
+    byte[] distanceMap,
+    int width,
+    int height,
+    IntPredicate isOcean
+  ) {
+    for (int x = 0; x < width; x++) {
+      for (int z = 0; z < height; z++) {
+        int index = z * width + x;
+        boolean isLand = !isOcean.test(index);
+
+        if (x == 0) {
+          distanceMap[index] = 0;
+        } else {
+          int prevIndex = z * width + (x - 1);
+          byte prevValue = distanceMap[prevIndex];
+
+          if (!isLand) {
+            distanceMap[index] = (byte) Math.max(prevValue - 2, 0);
+          } else {
+            int sum = prevValue;
+            int count = 1;
+
+            for (int dz = -2; dz <= 2; dz++) {
+              int nz = z + dz;
+              if (nz >= 0 && nz < height && dz != 0) {
+                int neighborIndex = nz * width + (x - 1);
+                sum += distanceMap[neighborIndex];
+                count++;
+              }
+            }
+
+            distanceMap[index] = (byte) Math.min(
+              (int) Math.ceil(sum / (double) count) + 1,
+              127
+            );
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Computes columns {@code [fromX, toX)} of rows {@code [fromZ, toZ)} from column
+   * {@code fromX - 1}, which must already be final.
+   */
+  private static void sweepBand(
+    byte[] distanceMap,
+    int width,
+    int height,
+    IntPredicate isOcean,
+    int fromX,
+    int toX,
+    int fromZ,
+    int toZ
+  ) {
+    int minZ = Math.max(fromZ - HALO_ROWS, 0);
+    int maxZ = Math.min(toZ + HALO_ROWS, height);
+    int rows = maxZ - minZ;
+    int columns = toX - fromX;
+
+    // Column-major: column c of the buffer is map column fromX - 1 + c
+    byte[] values = new byte[(columns + 1) * rows];
+    boolean[] land = new boolean[columns * rows];
+    for (int z = minZ; z < maxZ; z++) {
+      int zWidth = z * width;
+      int row = z - minZ;
+      values[row] = distanceMap[zWidth + fromX - 1];
+      for (int column = 0; column < columns; column++) {
+        land[column * rows + row] = !isOcean.test(zWidth + fromX + column);
+      }
+    }
+
+    for (int column = 0; column < columns; column++) {
+      int previous = column * rows;
+      int current = previous + rows;
+      int landOffset = column * rows;
+      for (int row = 0; row < rows; row++) {
+        byte prevValue = values[previous + row];
+        if (!land[landOffset + row]) {
+          values[current + row] = (byte) Math.max(prevValue - 2, 0);
+          continue;
+        }
+
+        // Rows outside the buffer are outside the map, or halo rows which are discarded
+        int sum = prevValue;
+        int count = 1;
+        for (int dz = -2; dz <= 2; dz++) {
+          int neighbor = row + dz;
+          if (neighbor >= 0 && neighbor < rows && dz != 0) {
+            sum += values[previous + neighbor];
+            count++;
+          }
+        }
+        values[current + row] = (byte) Math.min(
+          (int) Math.ceil(sum / (double) count) + 1,
+          127
+        );
+      }
+    }
+
+    for (int z = fromZ; z < toZ; z++) {
+      int zWidth = z * width;
+      int row = z - minZ;
+      for (int column = 0; column < columns; column++) {
+        distanceMap[zWidth + fromX + column] = values[(column + 1) * rows + row];
+      }
+    }
+  }
+}
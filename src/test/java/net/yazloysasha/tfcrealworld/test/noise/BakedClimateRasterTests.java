@@ -0,0 +1,79 @@
+package net.yazloysasha.tfcrealworld.test.noise;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import net.yazloysasha.tfcrealworld.config.TFCRealWorldConfig;
+import net.yazloysasha.tfcrealworld.test.TestSetup;
+import net.yazloysasha.tfcrealworld.world.noise.BakedClimateRaster;
+import net.yazloysasha.tfcrealworld.world.noise.KoppenClimateSampler;
+import net.yazloysasha.tfcrealworld.world.noise.PNGKoppenNoise;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks that baked climate matches on-demand sampling up to quantisation,
+ * both right after baking and when mapped from disk.
+ */
+public class BakedClimateRasterTests implements TestSetup {
+
+  private static final long SEED = 42L;
+
+  @Test
+  public void testBakedClimateMatchesSampler() {
+    final PNGKoppenNoise koppenNoise = new PNGKoppenNoise(
+      TFCRealWorldConfig.getHorizontalWorldScale(),
+      TFCRealWorldConfig.getVerticalWorldScale()
+    );
+    final KoppenClimateSampler sampler = new KoppenClimateSampler(
+      koppenNoise,
+      SEED,
+      0
+    );
+
+    // Baked on the first call and mapped from disk on the second
+    for (int load = 0; load < 2; load++) {
+      final KoppenClimateSampler baked = new KoppenClimateSampler(
+        koppenNoise,
+        SEED,
+        0,
+        BakedClimateRaster.loadOrBake(koppenNoise, SEED)
+      );
+      assertSamplersMatch(sampler, baked, koppenNoise);
+    }
+  }
+
+  private void assertSamplersMatch(
+    KoppenClimateSampler expected,
+    KoppenClimateSampler actual,
+    PNGKoppenNoise koppenNoise
+  ) {
+    final int radiusX = (int) Math.ceil(koppenNoise.getWorldRadiusGridX());
+    final int radiusZ = (int) Math.ceil(koppenNoise.getWorldRadiusGridZ());
+    // Reaches past the map, where the sampler is used
+    for (int z = -radiusZ - 4; z <= radiusZ + 4; z += 5) {
+      for (int x = -radiusX - 4; x <= radiusX + 4; x += 5) {
+        final String at = " differs at " + x + ", " + z;
+        assertEquals(
+          expected.temperature(x, z),
+          actual.temperature(x, z),
+          0.005 + 1e-9,
+          "temperature" + at
+        );
+        assertEquals(
+          expected.rainfall(x, z),
+          actual.rainfall(x, z),
+          0.01 + 1e-9,
+          "rainfall" + at
+        );
+        assertEquals(
+          expected.rainfallVariance(x, z),
+          actual.rainfallVariance(x, z),
+          0.5 / 30000 + 1e-9,
+          "rainfall variance" + at
+        );
+      }
+    }
+
+    // Points between grid cells are always sampled
+    assertEquals(expected.temperature(0.5, 0.5), actual.temperature(0.5, 0.5));
+  }
+}
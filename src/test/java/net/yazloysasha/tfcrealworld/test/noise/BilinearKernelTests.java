@@ -0,0 +1,110 @@
+package net.yazloysasha.tfcrealworld.test.noise;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Random;
+import net.yazloysasha.tfcrealworld.test.TestSetup;
+import net.yazloysasha.tfcrealworld.world.noise.BilinearKernel;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks that every interpolation kernel returns exactly the per-point bilinear formula.
+ */
+public class BilinearKernelTests implements TestSetup {
+
+  @Test
+  public void testScalarKernelMatchesPerPointFormula() {
+    final Random random = new Random(7);
+    for (int length : new int[] { 1, 7, 64, 129 }) {
+      final Strip strip = new Strip(random, length);
+      strip.interpolate(BilinearKernel.scalar());
+      for (int i = 0; i < length; i++) {
+        assertEquals(strip.expected(i), strip.out[i], "Cell " + i);
+      }
+    }
+  }
+
+  @Test
+  public void testVectorKernelMatchesScalar() {
+    final BilinearKernel vector = BilinearKernel.vector();
+    if (vector == null) {
+      // Started without --add-modules jdk.incubator.vector, only the scalar kernel is used
+      return;
+    }
+
+    final Random random = new Random(11);
+    // Lengths around the vector width exercise the scalar tail
+    for (int length = 1; length <= 67; length++) {
+      final Strip scalarStrip = new Strip(random, length);
+      final Strip vectorStrip = scalarStrip.copy();
+      scalarStrip.interpolate(BilinearKernel.scalar());
+      vectorStrip.interpolate(vector);
+      assertArrayEquals(scalarStrip.out, vectorStrip.out, "Length " + length);
+    }
+  }
+
+  private static final class Strip {
+
+    final double[] c00;
+    final double[] c10;
+    final double[] c01;
+    final double[] c11;
+    final double[] fx;
+    final double fz;
+    final double[] out;
+
+    Strip(Random random, int length) {
+      this(
+        values(random, length, 256),
+        values(random, length, 256),
+        values(random, length, 256),
+        values(random, length, 256),
+        values(random, length, 1),
+        random.nextDouble()
+      );
+    }
+
+    private Strip(
+      double[] c00,
+      double[] c10,
+      double[] c01,
+      double[] c11,
+      double[] fx,
+      double fz
+    ) {
+      this.c00 = c00;
+      this.c10 = c10;
+      this.c01 = c01;
+      this.c11 = c11;
+      this.fx = fx;
+      this.fz = fz;
+      this.out = new double[fx.length];
+    }
+
+    Strip copy() {
+      return new Strip(c00, c10, c01, c11, fx, fz);
+    }
+
+    void interpolate(BilinearKernel kernel) {
+      kernel.interpolate(c00, c10, c01, c11, fx, fz, out, out.length);
+    }
+
+    double expected(int i) {
+      final double value0 = c00[i] * (1 - fx[i]) + c10[i] * fx[i];
+      final double value1 = c01[i] * (1 - fx[i]) + c11[i] * fx[i];
+      return value0 * (1 - fz) + value1 * fz;
+    }
+
+    // Whole map values, or fractions when the bound is 1
+    private static double[] values(Random random, int length, int bound) {
+      final double[] values = new double[length];
+      for (int i = 0; i < length; i++) {
+        values[i] = bound == 1
+          ? random.nextDouble()
+          : random.nextInt(bound);
+      }
+      return values;
+    }
+  }
+}
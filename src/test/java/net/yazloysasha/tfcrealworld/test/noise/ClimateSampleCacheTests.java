@@ -0,0 +1,110 @@
+package net.yazloysasha.tfcrealworld.test.noise;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import net.yazloysasha.tfcrealworld.config.TFCRealWorldConfig;
+import net.yazloysasha.tfcrealworld.test.TestSetup;
+import net.yazloysasha.tfcrealworld.world.noise.ClimateSampleCache;
+import net.yazloysasha.tfcrealworld.world.noise.KoppenClimateSampler;
+import net.yazloysasha.tfcrealworld.world.noise.PNGKoppenNoise;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks that cached climate samples are exact, bounded and never torn between threads.
+ */
+public class ClimateSampleCacheTests implements TestSetup {
+
+  @Test
+  public void testCachedSamplerMatchesUncached() {
+    final PNGKoppenNoise koppenNoise = new PNGKoppenNoise(
+      TFCRealWorldConfig.getHorizontalWorldScale(),
+      TFCRealWorldConfig.getVerticalWorldScale()
+    );
+    final KoppenClimateSampler uncached = new KoppenClimateSampler(
+      koppenNoise,
+      42L,
+      0
+    );
+    final KoppenClimateSampler cached = new KoppenClimateSampler(
+      koppenNoise,
+      42L,
+      1 << 12
+    );
+
+    // The second pass is served from the cache
+    for (int pass = 0; pass < 2; pass++) {
+      for (int z = -40; z < 40; z += 3) {
+        for (int x = -40; x < 40; x += 3) {
+          assertEquals(uncached.temperature(x, z), cached.temperature(x, z));
+          assertEquals(uncached.rainfall(x, z), cached.rainfall(x, z));
+          assertEquals(
+            uncached.rainfallVariance(x, z),
+            cached.rainfallVariance(x, z)
+          );
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testCacheIsBounded() {
+    final ClimateSampleCache cache = new ClimateSampleCache(1000);
+    assertEquals(1024, cache.capacity());
+
+    final double[] out = new double[3];
+    for (int x = 0; x < 4096; x++) {
+      cache.put(ClimateSampleCache.key(x, 0), x, x, x);
+    }
+    int hits = 0;
+    for (int x = 0; x < 4096; x++) {
+      if (cache.get(ClimateSampleCache.key(x, 0), out)) {
+        assertEquals(x, out[0]);
+        hits++;
+      }
+    }
+    assertTrue(hits <= cache.capacity(), "Kept " + hits + " samples");
+    assertFalse(cache.get(ClimateSampleCache.key(0, 1), out));
+  }
+
+  @Test
+  public void testConcurrentSamplesAreNeverTorn() throws Exception {
+    final ClimateSampleCache cache = new ClimateSampleCache(256);
+    final ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      final List<Future<?>> futures = new ArrayList<>();
+      for (int thread = 0; thread < 8; thread++) {
+        futures.add(
+          executor.submit(() -> {
+            final double[] out = new double[3];
+            final ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = 0; i < 1_000_000; i++) {
+              final int x = random.nextInt(-2000, 2000);
+              final int z = random.nextInt(-2000, 2000);
+              final long key = ClimateSampleCache.key(x, z);
+              if (cache.get(key, out)) {
+                assertEquals(x, out[0]);
+                assertEquals(z, out[1]);
+                assertEquals(x + z, out[2]);
+              } else {
+                cache.put(key, x, z, x + z);
+              }
+            }
+          })
+        );
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+}
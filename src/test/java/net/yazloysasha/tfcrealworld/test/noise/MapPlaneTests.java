@@ -0,0 +1,96 @@
+package net.yazloysasha.tfcrealworld.test.noise;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import javax.imageio.ImageIO;
+import net.yazloysasha.tfcrealworld.test.TestSetup;
+import net.yazloysasha.tfcrealworld.util.MapPathHelper;
+import net.yazloysasha.tfcrealworld.world.noise.MapPlane;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks that tiled map planes return exactly the same pixels as array planes,
+ * and that the row by row decoding matches ImageIO.
+ */
+public class MapPlaneTests implements TestSetup {
+
+  @Test
+  public void testTiledContinentMatchesArray() {
+    assertPlanesMatch("continent");
+  }
+
+  @Test
+  public void testTiledAltitudeMatchesArray() {
+    assertPlanesMatch("altitude");
+  }
+
+  @Test
+  public void testRowDecodingMatchesImageIO() throws IOException {
+    // Grayscale, palette and RGB maps
+    for (String mapName : new String[] {
+      "continent",
+      "altitude",
+      "hotspots",
+      "koppen",
+    }) {
+      final BufferedImage image = ImageIO.read(
+        MapPathHelper.getMapPath(mapName).toFile()
+      );
+      final MapPlane plane = MapPlane.load(
+        mapName,
+        "brightness",
+        MapPlane.BRIGHTNESS,
+        false
+      );
+      assertNotNull(plane);
+      for (int z = 0; z < image.getHeight(); z++) {
+        for (int x = 0; x < image.getWidth(); x++) {
+          assertEquals(
+            (int) Math.round(MapPlane.getBrightness(image.getRGB(x, z))),
+            plane.get(x, z),
+            mapName + " differs at " + x + ", " + z
+          );
+        }
+      }
+    }
+  }
+
+  private void assertPlanesMatch(String mapName) {
+    final MapPlane array = MapPlane.load(
+      mapName,
+      "brightness",
+      MapPlane.BRIGHTNESS,
+      false
+    );
+    // Loaded twice, the first load writes the tile file and the second one maps it
+    MapPlane.load(mapName, "brightness", MapPlane.BRIGHTNESS, true);
+    final MapPlane tiled = MapPlane.load(
+      mapName,
+      "brightness",
+      MapPlane.BRIGHTNESS,
+      true
+    );
+    assertNotNull(array);
+    assertNotNull(tiled);
+    assertEquals(array.getWidth(), tiled.getWidth());
+    assertEquals(array.getHeight(), tiled.getHeight());
+
+    for (int z = 0; z < array.getHeight(); z++) {
+      for (int x = 0; x < array.getWidth(); x++) {
+        assertEquals(
+          array.get(x, z),
+          tiled.get(x, z),
+          mapName + " differs at " + x + ", " + z
+        );
+        assertEquals(
+          array.get(x, z),
+          tiled.getAt(z * tiled.getWidth() + x),
+          mapName + " index differs at " + x + ", " + z
+        );
+      }
+    }
+  }
+}
@@ -0,0 +1,135 @@
+package net.yazloysasha.tfcrealworld.test.noise;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import net.yazloysasha.tfcrealworld.config.TFCRealWorldConfig;
+import net.yazloysasha.tfcrealworld.test.TestSetup;
+import net.yazloysasha.tfcrealworld.world.noise.KoppenClimateSampler;
+import net.yazloysasha.tfcrealworld.world.noise.PNGAltitudeNoise;
+import net.yazloysasha.tfcrealworld.world.noise.PNGContinentNoise;
+import net.yazloysasha.tfcrealworld.world.noise.PNGKoppenNoise;
+import net.yazloysasha.tfcrealworld.world.region.GlobalOceanDistanceCache;
+import net.yazloysasha.tfcrealworld.world.region.GlobalWestCoastDistanceCache;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks that the per-point map sampling used during region generation does not allocate.
+ */
+public class SamplingAllocationTests implements TestSetup {
+
+  private static final int ITERATIONS = 200_000;
+
+  private static final com.sun.management.ThreadMXBean THREADS =
+    (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+  private static PNGContinentNoise continentNoise;
+  private static PNGAltitudeNoise altitudeNoise;
+  private static PNGKoppenNoise koppenNoise;
+
+  @BeforeAll
+  public static void loadMaps() {
+    final int horizontalWorldScale =
+      TFCRealWorldConfig.getHorizontalWorldScale();
+    final int verticalWorldScale = TFCRealWorldConfig.getVerticalWorldScale();
+
+    continentNoise = new PNGContinentNoise(
+      horizontalWorldScale,
+      verticalWorldScale
+    );
+    altitudeNoise = new PNGAltitudeNoise(
+      horizontalWorldScale,
+      verticalWorldScale
+    );
+    koppenNoise = new PNGKoppenNoise(horizontalWorldScale, verticalWorldScale);
+
+    GlobalOceanDistanceCache.initialize(
+      continentNoise,
+      TFCRealWorldConfig.getEuclideanDistances()
+    );
+    GlobalWestCoastDistanceCache.initialize(
+      continentNoise,
+      TFCRealWorldConfig.getEuclideanDistances()
+    );
+  }
+
+  @Test
+  public void testContinentNoiseDoesNotAllocate() {
+    assertNoAllocation("BasePNGNoise.noise", (x, z) ->
+      continentNoise.noise(x, z)
+    );
+  }
+
+  @Test
+  public void testAltitudeDoesNotAllocate() {
+    assertNoAllocation("PNGAltitudeNoise.getAltitude", (x, z) ->
+      altitudeNoise.getAltitude(x, z)
+    );
+  }
+
+  @Test
+  public void testKoppenInterpolationDoesNotAllocate() {
+    final PNGKoppenNoise.ClimateInterpolationResult result =
+      new PNGKoppenNoise.ClimateInterpolationResult();
+    assertNoAllocation("PNGKoppenNoise.getClimateInterpolation", (x, z) ->
+      koppenNoise.getClimateInterpolation(x, z, result).weight00
+    );
+  }
+
+  @Test
+  public void testKoppenClimateSamplerDoesNotAllocate() {
+    final KoppenClimateSampler sampler = new KoppenClimateSampler(
+      koppenNoise,
+      42L
+    );
+    assertNoAllocation("KoppenClimateSampler", (x, z) ->
+      sampler.temperature(x, z) +
+      sampler.rainfall(x, z) +
+      sampler.rainfallVariance(x, z)
+    );
+  }
+
+  @Test
+  public void testDistanceCachesDoNotAllocate() {
+    final GlobalOceanDistanceCache oceanCache =
+      GlobalOceanDistanceCache.getInstance();
+    final GlobalWestCoastDistanceCache westCoastCache =
+      GlobalWestCoastDistanceCache.getInstance();
+    assertTrue(oceanCache != null && westCoastCache != null);
+
+    assertNoAllocation("GlobalOceanDistanceCache.getDistance", (x, z) ->
+      oceanCache.getDistance(x, z, (x & 1) == 0)
+    );
+    assertNoAllocation("GlobalWestCoastDistanceCache.getDistance", (x, z) ->
+      westCoastCache.getDistance(x, z)
+    );
+  }
+
+  private void assertNoAllocation(String name, Sampler sampler) {
+    // Warm up first, so class loading and compilation are not measured
+    double sink = sample(sampler);
+
+    final long before = THREADS.getCurrentThreadAllocatedBytes();
+    sink += sample(sampler);
+    final long allocated = THREADS.getCurrentThreadAllocatedBytes() - before;
+
+    // Anything allocated per call would be at least ITERATIONS * 16 bytes
+    assertTrue(
+      allocated < ITERATIONS,
+      name + " allocated " + allocated + " bytes (" + sink + ")"
+    );
+  }
+
+  private double sample(Sampler sampler) {
+    double sum = 0;
+    for (int i = 0; i < ITERATIONS; i++) {
+      sum += sampler.sample((i * 31) % 311 - 155, (i * 17) % 157 - 78);
+    }
+    return sum;
+  }
+
+  interface Sampler {
+    double sample(int x, int z);
+  }
+}
@@ -0,0 +1,39 @@
+package net.yazloysasha.tfcrealworld.test.region;
+
+import java.util.function.IntPredicate;
+import net.yazloysasha.tfcrealworld.config.TFCRealWorldConfig;
+import net.yazloysasha.tfcrealworld.world.noise.MapPlane;
+import net.yazloysasha.tfcrealworld.world.noise.PNGContinentNoise;
+
+/**
+ * The bundled continent map and its ocean pixels, shared by the distance transform tests
+ * and benchmarks.
+ */
+public final class ContinentMaps {
+
+  private ContinentMaps() {}
+
+  public static PNGContinentNoise continentNoise() {
+    return new PNGContinentNoise(
+      TFCRealWorldConfig.getHorizontalWorldScale(),
+      TFCRealWorldConfig.getVerticalWorldScale()
+    );
+  }
+
+  /**
+   * Whether each pixel of the map upscaled {@code upscale} times, {@code width} pixels wide,
+   * is ocean by the rule the distance caches use.
+   */
+  public static IntPredicate oceanPredicate(
+    PNGContinentNoise continentNoise,
+    int width,
+    int upscale
+  ) {
+    final MapPlane brightness = continentNoise.getBrightnessPlane();
+    return index -> {
+      final int x = (index % width) / upscale;
+      final int z = (index / width) / upscale;
+      return PNGContinentNoise.isOcean(brightness.get(x, z));
+    };
+  }
+}
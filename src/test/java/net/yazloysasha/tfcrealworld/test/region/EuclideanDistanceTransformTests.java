@@ -0,0 +1,89 @@
+package net.yazloysasha.tfcrealworld.test.region;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+import net.yazloysasha.tfcrealworld.test.TestSetup;
+import net.yazloysasha.tfcrealworld.world.region.EuclideanDistanceTransform;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Compares the Euclidean distance transform against a brute force search over all sources.
+ */
+public class EuclideanDistanceTransformTests implements TestSetup {
+
+  @Test
+  public void testMatchesBruteForce() {
+    final Random random = new Random(3);
+    for (int round = 0; round < 20; round++) {
+      final int width = 1 + random.nextInt(60);
+      final int height = 1 + random.nextInt(60);
+      // From a single source up to half of the map
+      final double density = round < 5 ? 0.002 : random.nextDouble() * 0.5;
+      final boolean[] sources = new boolean[width * height];
+      for (int i = 0; i < sources.length; i++) {
+        sources[i] = random.nextDouble() < density;
+      }
+      check(sources, width, height);
+    }
+  }
+
+  @Test
+  public void testWithoutSources() {
+    final int width = 17;
+    final int height = 9;
+    EuclideanDistanceTransform.compute(
+      width,
+      height,
+      index -> false,
+      (index, sourceIndex, distance) -> {
+        assertEquals(-1, sourceIndex);
+        assertEquals(Double.POSITIVE_INFINITY, distance);
+      }
+    );
+  }
+
+  private void check(boolean[] sources, int width, int height) {
+    final double[] expected = new double[width * height];
+    for (int index = 0; index < expected.length; index++) {
+      expected[index] = Double.POSITIVE_INFINITY;
+      for (int source = 0; source < sources.length; source++) {
+        if (sources[source]) {
+          expected[index] = Math.min(
+            expected[index],
+            distance(index, source, width)
+          );
+        }
+      }
+    }
+
+    final int[] visits = new int[width * height];
+    EuclideanDistanceTransform.compute(
+      width,
+      height,
+      index -> sources[index],
+      (index, sourceIndex, distance) -> {
+        visits[index]++;
+        assertEquals(expected[index], distance, "Distance of " + index);
+        if (sourceIndex >= 0) {
+          assertTrue(sources[sourceIndex], "Source of " + index);
+          assertEquals(
+            distance,
+            distance(index, sourceIndex, width),
+            "Distance to the source of " + index
+          );
+        }
+      }
+    );
+    for (int visit : visits) {
+      assertEquals(1, visit);
+    }
+  }
+
+  private static double distance(int index, int source, int width) {
+    final int dx = index % width - source % width;
+    final int dz = index / width - source / width;
+    return Math.sqrt(dx * dx + dz * dz);
+  }
+}
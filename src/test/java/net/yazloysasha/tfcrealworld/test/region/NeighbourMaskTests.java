@@ -0,0 +1,72 @@
+package net.yazloysasha.tfcrealworld.test.region;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Random;
+import net.yazloysasha.tfcrealworld.test.TestSetup;
+import net.yazloysasha.tfcrealworld.world.region.NeighbourMask;
+import net.yazloysasha.tfcrealworld.world.region.RegionGrid;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Compares the packed neighbour dilation against scanning the eight neighbours of each cell.
+ */
+public class NeighbourMaskTests implements TestSetup {
+
+  @Test
+  public void testDilateMatchesNeighbourScan() {
+    final Random random = new Random(9);
+    // Widths around word boundaries, including the padding columns
+    final int[] widths = { 1, 2, 61, 62, 63, 64, 65, 127, 130 };
+    for (int sizeX : widths) {
+      final int sizeZ = 1 + random.nextInt(40);
+      final RegionGrid grid = RegionGrid.of(-17, 5, sizeX, sizeZ);
+      final boolean[] cells = new boolean[sizeX * sizeZ];
+      final NeighbourMask mask = new NeighbourMask(grid);
+      for (int row = 0; row < sizeZ; row++) {
+        for (int column = 0; column < sizeX; column++) {
+          if (random.nextInt(12) == 0) {
+            cells[row * sizeX + column] = true;
+            mask.set(column, row);
+          }
+        }
+      }
+
+      final NeighbourMask dilated = mask.dilate();
+      for (int row = 0; row < sizeZ; row++) {
+        for (int column = 0; column < sizeX; column++) {
+          assertEquals(
+            cells[row * sizeX + column],
+            mask.get(column, row),
+            "Cell " + column + ", " + row
+          );
+          assertEquals(
+            anyNeighbour(cells, sizeX, sizeZ, column, row),
+            dilated.get(column, row),
+            sizeX + "x" + sizeZ + " cell " + column + ", " + row
+          );
+        }
+      }
+    }
+  }
+
+  private static boolean anyNeighbour(
+    boolean[] cells,
+    int sizeX,
+    int sizeZ,
+    int column,
+    int row
+  ) {
+    for (int dz = -1; dz <= 1; dz++) {
+      for (int dx = -1; dx <= 1; dx++) {
+        final int x = column + dx;
+        final int z = row + dz;
+        final boolean inside = x >= 0 && x < sizeX && z >= 0 && z < sizeZ;
+        if (inside && cells[z * sizeX + x]) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+}
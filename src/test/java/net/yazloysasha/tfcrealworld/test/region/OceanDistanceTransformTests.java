@@ -0,0 +1,178 @@
+package net.yazloysasha.tfcrealworld.test.region;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+import java.util.function.IntPredicate;
+import net.yazloysasha.tfcrealworld.test.TestSetup;
+import net.yazloysasha.tfcrealworld.world.noise.PNGContinentNoise;
+import net.yazloysasha.tfcrealworld.world.region.OceanDistanceTransform;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Compares the parallel ocean distance transform against the sequential BFS,
+ * and the Euclidean transform against the BFS and a brute force search.
+ * Timings live in {@code DistanceCacheBenchmarks}.
+ */
+public class OceanDistanceTransformTests implements TestSetup {
+
+  private static final int UPSCALE = 8;
+
+  @Test
+  public void testParallelMatchesSequential() {
+    final PNGContinentNoise continentNoise = ContinentMaps.continentNoise();
+    final int width = continentNoise.getWidth();
+    final int height = continentNoise.getHeight();
+    final IntPredicate isOcean = ContinentMaps.oceanPredicate(
+      continentNoise,
+      width,
+      1
+    );
+
+    final byte[] expected = new byte[width * height];
+    final byte[] actual = new byte[width * height];
+    OceanDistanceTransform.computeSequential(expected, width, height, isOcean);
+    OceanDistanceTransform.computeParallel(actual, width, height, isOcean);
+
+    assertArrayEquals(expected, actual);
+  }
+
+  @Test
+  public void testParallelMatchesSequentialUpscaled() {
+    // Upscale the bundled map to get a size closer to real-world maps
+    final PNGContinentNoise continentNoise = ContinentMaps.continentNoise();
+    final int width = continentNoise.getWidth() * UPSCALE;
+    final int height = continentNoise.getHeight() * UPSCALE;
+    final IntPredicate isOcean = ContinentMaps.oceanPredicate(
+      continentNoise,
+      width,
+      UPSCALE
+    );
+
+    final byte[] expected = new byte[width * height];
+    final byte[] actual = new byte[width * height];
+    OceanDistanceTransform.computeSequential(expected, width, height, isOcean);
+    OceanDistanceTransform.computeParallel(actual, width, height, isOcean);
+
+    assertArrayEquals(expected, actual);
+  }
+
+  @Test
+  public void testEuclideanIsNeverBelowBreadthFirst() {
+    final PNGContinentNoise continentNoise = ContinentMaps.continentNoise();
+    final int width = continentNoise.getWidth();
+    final int height = continentNoise.getHeight();
+    final IntPredicate isOcean = ContinentMaps.oceanPredicate(
+      continentNoise,
+      width,
+      1
+    );
+
+    final byte[] breadthFirst = new byte[width * height];
+    final byte[] euclidean = new byte[width * height];
+    OceanDistanceTransform.computeSequential(
+      breadthFirst,
+      width,
+      height,
+      isOcean
+    );
+    OceanDistanceTransform.computeEuclidean(euclidean, width, height, isOcean);
+
+    // Same ocean and coast pixels, and a Euclidean distance is never shorter than a
+    // Chebyshev one, nor longer than sqrt(2) times it
+    for (int i = 0; i < breadthFirst.length; i++) {
+      if (breadthFirst[i] < 0) {
+        assertEquals(breadthFirst[i], euclidean[i], "Ocean pixel " + i);
+      } else {
+        assertTrue(euclidean[i] >= breadthFirst[i], "Land pixel " + i);
+        final long longest = Math.round((breadthFirst[i] + 1) * Math.sqrt(2));
+        assertTrue(euclidean[i] + 1 <= longest, "Land pixel " + i);
+      }
+    }
+  }
+
+  @Test
+  public void testEuclideanMatchesBruteForce() {
+    final Random random = new Random(7);
+    for (int round = 0; round < 20; round++) {
+      final int width = 1 + random.nextInt(60);
+      final int height = 1 + random.nextInt(60);
+      // From a single ocean pixel up to half of the map
+      final double density = round < 5 ? 0.002 : random.nextDouble() * 0.5;
+      final boolean[] ocean = new boolean[width * height];
+      for (int i = 0; i < ocean.length; i++) {
+        ocean[i] = random.nextDouble() < density;
+      }
+      checkEuclidean(ocean, width, height);
+    }
+
+    // Far enough from the ocean to clamp the distance
+    final boolean[] ocean = new boolean[200 * 3];
+    ocean[0] = true;
+    checkEuclidean(ocean, 200, 3);
+  }
+
+  private void checkEuclidean(boolean[] ocean, int width, int height) {
+    final byte[] expected = new byte[width * height];
+    for (int index = 0; index < expected.length; index++) {
+      if (ocean[index]) {
+        expected[index] = -1;
+        continue;
+      }
+      double nearest = Double.POSITIVE_INFINITY;
+      for (int source = 0; source < ocean.length; source++) {
+        if (ocean[source]) {
+          final double dx = index % width - source % width;
+          final double dz = index / width - source / width;
+          nearest = Math.min(nearest, Math.sqrt(dx * dx + dz * dz));
+        }
+      }
+      // Land without any ocean on the map stays at 0, like the BFS leaves it
+      if (nearest != Double.POSITIVE_INFINITY) {
+        expected[index] = (byte) Math.min(Math.round(nearest) - 1, 127);
+      }
+    }
+    // Ocean pixels next to land further than one pixel from the ocean are coast
+    for (int index = 0; index < expected.length; index++) {
+      if (
+        expected[index] == -1 && hasPositiveNeighbor(expected, width, index)
+      ) {
+        expected[index] = -2;
+      }
+    }
+
+    final byte[] actual = new byte[width * height];
+    OceanDistanceTransform.computeEuclidean(
+      actual,
+      width,
+      height,
+      index -> ocean[index]
+    );
+
+    assertArrayEquals(expected, actual, width + "x" + height);
+  }
+
+  private boolean hasPositiveNeighbor(
+    byte[] distanceMap,
+    int width,
+    int index
+  ) {
+    final int height = distanceMap.length / width;
+    final int x = index % width;
+    final int z = index / width;
+    for (int dz = -1; dz <= 1; dz++) {
+      final int nz = z + dz;
+      if (nz < 0 || nz >= height) continue;
+      for (int dx = -1; dx <= 1; dx++) {
+        final int nx = x + dx;
+        if (nx < 0 || nx >= width) continue;
+        if (distanceMap[nz * width + nx] > 0) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+}
@@ -0,0 +1,97 @@
+package net.yazloysasha.tfcrealworld.test.region;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import net.yazloysasha.tfcrealworld.config.TFCRealWorldConfig;
+import net.yazloysasha.tfcrealworld.test.TestSetup;
+import net.yazloysasha.tfcrealworld.world.noise.PNGAltitudeNoise;
+import net.yazloysasha.tfcrealworld.world.noise.PNGContinentNoise;
+import net.yazloysasha.tfcrealworld.world.noise.PNGHotspotsNoise;
+import net.yazloysasha.tfcrealworld.world.region.GlobalOceanDistanceCache;
+import net.yazloysasha.tfcrealworld.world.region.GlobalWestCoastDistanceCache;
+import net.yazloysasha.tfcrealworld.world.region.RegionGrid;
+import net.yazloysasha.tfcrealworld.world.region.RegionMapAnnotator;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks that the fused map annotation returns exactly the values of the per-point lookups.
+ */
+public class RegionMapAnnotatorTests implements TestSetup {
+
+  private static final int[][] GRIDS = {
+    { -300, -200, 180, 140 },
+    { -20, -20, 40, 40 },
+    { 250, 100, 97, 61 },
+    { -5000, 4000, 64, 64 },
+  };
+
+  @Test
+  public void testFusedAnnotationsMatchPointLookups() {
+    final int h = TFCRealWorldConfig.getHorizontalWorldScale();
+    final int v = TFCRealWorldConfig.getVerticalWorldScale();
+    final PNGContinentNoise continentNoise = new PNGContinentNoise(h, v);
+    final PNGAltitudeNoise altitudeNoise = new PNGAltitudeNoise(h, v);
+    final PNGHotspotsNoise hotspotsNoise = new PNGHotspotsNoise(h, v);
+    GlobalOceanDistanceCache.initialize(
+      continentNoise,
+      TFCRealWorldConfig.getEuclideanDistances()
+    );
+    GlobalWestCoastDistanceCache.initialize(
+      continentNoise,
+      TFCRealWorldConfig.getEuclideanDistances()
+    );
+    final GlobalOceanDistanceCache oceanCache =
+      GlobalOceanDistanceCache.getInstance();
+    final GlobalWestCoastDistanceCache westCoastCache =
+      GlobalWestCoastDistanceCache.getInstance();
+
+    for (int[] bounds : GRIDS) {
+      final RegionGrid grid = RegionGrid.of(
+        bounds[0],
+        bounds[1],
+        bounds[2],
+        bounds[3]
+      );
+      final RegionMapAnnotator.MapAnnotations annotations =
+        RegionMapAnnotator.compute(
+          grid,
+          altitudeNoise,
+          hotspotsNoise,
+          oceanCache,
+          westCoastCache
+        );
+
+      for (int z = grid.minZ; z < grid.minZ + grid.sizeZ; z++) {
+        for (int x = grid.minX; x < grid.minX + grid.sizeX; x++) {
+          final int index = (z - grid.minZ) * grid.sizeX + (x - grid.minX);
+          final String at = " differs at " + x + ", " + z;
+          assertEquals(
+            altitudeNoise.getAltitude(x, z),
+            annotations.altitudes[index],
+            "altitude" + at
+          );
+          assertEquals(
+            hotspotsNoise.getHotSpotAge(x, z),
+            annotations.hotSpotAges[index],
+            "hotspot age" + at
+          );
+          assertEquals(
+            oceanCache.getDistance(x, z, true),
+            annotations.landDistancesToOcean[index],
+            "land distance to ocean" + at
+          );
+          assertEquals(
+            oceanCache.getDistance(x, z, false),
+            annotations.oceanDistancesToOcean[index],
+            "ocean distance to ocean" + at
+          );
+          assertEquals(
+            westCoastCache.getDistance(x, z),
+            annotations.distancesToWestCoast[index],
+            "distance to west coast" + at
+          );
+        }
+      }
+    }
+  }
+}
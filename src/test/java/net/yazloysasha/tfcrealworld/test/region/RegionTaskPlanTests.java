@@ -0,0 +1,114 @@
+package net.yazloysasha.tfcrealworld.test.region;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import net.dries007.tfc.world.region.RegionGenerator.Task;
+import net.dries007.tfc.world.region.RegionTask;
+import net.yazloysasha.tfcrealworld.config.ConfigView;
+import net.yazloysasha.tfcrealworld.config.TFCRealWorldConfig;
+import net.yazloysasha.tfcrealworld.test.TestSetup;
+import net.yazloysasha.tfcrealworld.world.region.MapRegionTask;
+import net.yazloysasha.tfcrealworld.world.region.RegionTaskPlan;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks that the region task plan drops and replaces exactly the tasks overridden by the
+ * enabled map modes.
+ */
+public class RegionTaskPlanTests implements TestSetup {
+
+  @Test
+  public void testPlanForEveryMapMode() {
+    for (boolean continentFromMap : new boolean[] { false, true }) {
+      for (boolean altitudeFromMap : new boolean[] { false, true }) {
+        assertPlan(
+          RegionTaskPlan.of(continentFromMap, altitudeFromMap),
+          continentFromMap,
+          altitudeFromMap
+        );
+      }
+    }
+  }
+
+  @Test
+  public void testPlanMatchesActiveConfig() {
+    final ConfigView config = TFCRealWorldConfig.view();
+    assertPlan(
+      RegionTaskPlan.of(config),
+      config.continentFromMap(),
+      config.altitudeFromMap()
+    );
+  }
+
+  @Test
+  public void testPlanWithoutMapsRunsEveryTask() {
+    final RegionTaskPlan plan = RegionTaskPlan.of(false, false);
+    assertEquals(List.of(Task.values()), List.of(plan.tasks()));
+    for (Task task : Task.values()) {
+      assertNull(plan.replacement(task), task.name());
+    }
+  }
+
+  private void assertPlan(
+    RegionTaskPlan plan,
+    boolean continentFromMap,
+    boolean altitudeFromMap
+  ) {
+    final String mode =
+      "continent " + continentFromMap + ", altitude " + altitudeFromMap;
+
+    // Skipped tasks are removed, the others keep the TFC order
+    final List<Task> expected = new ArrayList<>();
+    for (Task task : Task.values()) {
+      if (task == Task.FLOOD_FILL_SMALL_OCEANS && continentFromMap) {
+        continue;
+      }
+      if (task == Task.ADD_MOUNTAINS && altitudeFromMap) {
+        continue;
+      }
+      expected.add(task);
+    }
+    assertEquals(expected, List.of(plan.tasks()), mode);
+
+    assertReplacement(
+      plan,
+      Task.ANNOTATE_DISTANCE_TO_OCEAN,
+      continentFromMap ? MapRegionTask.DISTANCE_TO_OCEAN : null,
+      mode
+    );
+    assertReplacement(
+      plan,
+      Task.ANNOTATE_DISTANCE_TO_WEST_COAST,
+      continentFromMap ? MapRegionTask.DISTANCE_TO_WEST_COAST : null,
+      mode
+    );
+    assertReplacement(
+      plan,
+      Task.ANNOTATE_BASE_LAND_HEIGHT,
+      altitudeFromMap ? MapRegionTask.BASE_LAND_HEIGHT : null,
+      mode
+    );
+    assertReplacement(
+      plan,
+      Task.ANNOTATE_BIOME_ALTITUDE,
+      altitudeFromMap ? MapRegionTask.BIOME_ALTITUDE : null,
+      mode
+    );
+
+    // Hotspots and climate adjust the TFC values, so they are never replaced
+    assertNull(plan.replacement(Task.ADD_HOTSPOTS), mode);
+    assertNull(plan.replacement(Task.ANNOTATE_CLIMATE), mode);
+  }
+
+  private void assertReplacement(
+    RegionTaskPlan plan,
+    Task task,
+    RegionTask expected,
+    String mode
+  ) {
+    assertEquals(expected, plan.replacement(task), task.name() + ", " + mode);
+  }
+}
@@ -0,0 +1,80 @@
+package net.yazloysasha.tfcrealworld.test.region;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+import java.util.Random;
+import java.util.function.IntPredicate;
+import net.yazloysasha.tfcrealworld.test.TestSetup;
+import net.yazloysasha.tfcrealworld.world.noise.PNGContinentNoise;
+import net.yazloysasha.tfcrealworld.world.region.WestCoastSweep;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Compares the banded west coast sweep against the sequential sweep.
+ * Timings live in {@code DistanceCacheBenchmarks}.
+ */
+public class WestCoastSweepTests implements TestSetup {
+
+  private static final int UPSCALE = 8;
+
+  @Test
+  public void testParallelMatchesSequential() {
+    final PNGContinentNoise continentNoise = ContinentMaps.continentNoise();
+    final int width = continentNoise.getWidth();
+    final int height = continentNoise.getHeight();
+    final IntPredicate isOcean = ContinentMaps.oceanPredicate(
+      continentNoise,
+      width,
+      1
+    );
+
+    final byte[] expected = new byte[width * height];
+    final byte[] actual = new byte[width * height];
+    WestCoastSweep.computeSequential(expected, width, height, isOcean);
+    WestCoastSweep.computeParallel(actual, width, height, isOcean);
+
+    assertArrayEquals(expected, actual);
+  }
+
+  @Test
+  public void testParallelMatchesSequentialAcrossBands() {
+    // Sizes which are not multiples of the band and block sizes, with noisy coasts
+    final Random random = new Random(5);
+    final int[][] sizes = { { 37, 1500 }, { 301, 1029 }, { 2, 513 } };
+    for (int[] size : sizes) {
+      final int width = size[0];
+      final int height = size[1];
+      final boolean[] ocean = new boolean[width * height];
+      for (int i = 0; i < ocean.length; i++) {
+        ocean[i] = random.nextInt(3) == 0;
+      }
+
+      final byte[] expected = new byte[width * height];
+      final byte[] actual = new byte[width * height];
+      WestCoastSweep.computeSequential(expected, width, height, i -> ocean[i]);
+      WestCoastSweep.computeParallel(actual, width, height, i -> ocean[i]);
+
+      assertArrayEquals(expected, actual, width + "x" + height);
+    }
+  }
+
+  @Test
+  public void testParallelMatchesSequentialUpscaled() {
+    // Upscale the bundled map to get a size closer to real-world maps
+    final PNGContinentNoise continentNoise = ContinentMaps.continentNoise();
+    final int width = continentNoise.getWidth() * UPSCALE;
+    final int height = continentNoise.getHeight() * UPSCALE;
+    final IntPredicate isOcean = ContinentMaps.oceanPredicate(
+      continentNoise,
+      width,
+      UPSCALE
+    );
+
+    final byte[] expected = new byte[width * height];
+    final byte[] actual = new byte[width * height];
+    WestCoastSweep.computeSequential(expected, width, height, isOcean);
+    WestCoastSweep.computeParallel(actual, width, height, isOcean);
+
+    assertArrayEquals(expected, actual);
+  }
+}
@@ -0,0 +1,57 @@
+package net.yazloysasha.tfcrealworld.world.noise;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * {@link BilinearKernel} on the incubating Vector API. This is the only class which refers to
+ * {@code jdk.incubator.vector}, and it is only loaded when that module is present. It lives in
+ * its own source set, the only one compiled with the module.
+ */
+final class VectorBilinearKernel extends BilinearKernel {
+
+  private static final VectorSpecies<Double> SPECIES =
+    DoubleVector.SPECIES_PREFERRED;
+
+  @Override
+  public void interpolate(
+    double[] c00,
+    double[] c10,
+    double[] c01,
+    double[] c11,
+    double[] fx,
+    double fz,
+    double[] out,
+    int length
+  ) {
+    DoubleVector one = DoubleVector.broadcast(SPECIES, 1);
+    DoubleVector oneMinusFz = DoubleVector.broadcast(SPECIES, 1 - fz);
+    DoubleVector fzVector = DoubleVector.broadcast(SPECIES, fz);
+
+    int i = 0;
+    int upperBound = SPECIES.loopBound(length);
+    for (; i < upperBound; i += SPECIES.length()) {
+      DoubleVector weight = DoubleVector.fromArray(SPECIES, fx, i);
+      DoubleVector oneMinusWeight = one.sub(weight);
+
+      DoubleVector value0 = DoubleVector.fromArray(SPECIES, c00, i)
+        .mul(oneMinusWeight)
+        .add(DoubleVector.fromArray(SPECIES, c10, i).mul(weight));
+      DoubleVector value1 = DoubleVector.fromArray(SPECIES, c01, i)
+        .mul(oneMinusWeight)
+        .add(DoubleVector.fromArray(SPECIES, c11, i).mul(weight));
+      value0.mul(oneMinusFz).add(value1.mul(fzVector)).intoArray(out, i);
+    }
+
+    for (; i < length; i++) {
+      double value0 = c00[i] * (1 - fx[i]) + c10[i] * fx[i];
+      double value1 = c01[i] * (1 - fx[i]) + c11[i] * fx[i];
+      out[i] = value0 * (1 - fz) + value1 * fz;
+    }
+  }
+
+  @Override
+  public String getName() {
+    return "Vector API (" + SPECIES.length() + " lanes)";
+  }
+}